@@ -0,0 +1,8 @@
+package com.glenneligio.dntx.enums;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.glenneligio.dntx.enums;
+
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL
+}
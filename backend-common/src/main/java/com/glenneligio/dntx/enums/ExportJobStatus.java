@@ -0,0 +1,8 @@
+package com.glenneligio.dntx.enums;
+
+public enum ExportJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
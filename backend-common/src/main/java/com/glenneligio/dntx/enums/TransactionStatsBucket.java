@@ -0,0 +1,26 @@
+package com.glenneligio.dntx.enums;
+
+import java.util.stream.Stream;
+
+public enum TransactionStatsBucket {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month");
+
+    private final String code;
+
+    TransactionStatsBucket(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static TransactionStatsBucket getTransactionStatsBucket(String codeString) {
+        return Stream.of(TransactionStatsBucket.values())
+                .filter(bucket -> bucket.getCode().equalsIgnoreCase(codeString))
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -1,10 +1,7 @@
 package com.glenneligio.dntx.enums;
 
-import lombok.extern.slf4j.Slf4j;
-
 import java.util.stream.Stream;
 
-@Slf4j
 public enum TransactionType {
     CC2GOLD("CC2GOLD"),
     GOLD2PHP("GOLD2PHP"),
@@ -21,7 +18,6 @@ public enum TransactionType {
     }
 
     public static TransactionType getTransactionType(String codeString) {
-        log.info("Converting {} into Transaction type", codeString);
         return Stream.of(TransactionType.values())
                 .filter(code -> codeString.equals(code.getCode()))
                 .findFirst()
@@ -1,8 +1,6 @@
 package com.glenneligio.dntx.model;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glenneligio.dntx.exception.ApiException;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
@@ -10,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
 
@@ -32,18 +31,12 @@ public class CcToGoldTransactionItem extends TransactionItem {
     private Double goldPaid;
 
     public CcToGoldTransactionItem(TransactionItem t)  {
-        log.info("Updating cc to gold transaction item: {}", t);
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.findAndRegisterModules();
-        try {
-            String txString = mapper.writeValueAsString(t);
-            JsonNode jsonNode = mapper.readTree(txString);
-            this.setCcAmount(jsonNode.get("ccAmount").decimalValue());
-            this.setGoldPerCC(jsonNode.get("goldPerCC").asDouble());
-            this.setGoldPaid(jsonNode.get("goldPaid").asDouble());
-        } catch (JsonProcessingException e) {
-            e.printStackTrace();
+        if (!(t instanceof CcToGoldTransactionItem src)) {
+            throw new ApiException("Transaction item is not a CC2GOLD transaction item", HttpStatus.BAD_REQUEST);
         }
+        this.ccAmount = src.getCcAmount();
+        this.goldPerCC = src.getGoldPerCC();
+        this.goldPaid = src.getGoldPaid();
     }
 
     @Override
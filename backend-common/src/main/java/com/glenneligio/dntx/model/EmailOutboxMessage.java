@@ -0,0 +1,45 @@
+package com.glenneligio.dntx.model;
+
+import com.glenneligio.dntx.enums.EmailOutboxStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.ZonedDateTime;
+
+// Email waiting to be sent by the EmailOutboxService, written in the request and delivered in the background
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "email_outbox")
+@CompoundIndexes({
+        @CompoundIndex(name = "status_nextAttemptAt", def = "{'status': 1, 'nextAttemptAt': 1}")
+})
+public class EmailOutboxMessage {
+
+    @Id
+    private String id;
+
+    private String to;
+    private String subject;
+    // removed once the message is SENT or FAILED
+    private String body;
+
+    private EmailOutboxStatus status;
+    private int attempts;
+    // the message is not picked up again before this time, pushed back exponentially after every failed attempt
+    private ZonedDateTime nextAttemptAt;
+    // a SENDING message whose lease expired was claimed by a dispatcher that died, it is claimed again
+    private ZonedDateTime leaseExpiresAt;
+    private String lastError;
+
+    private ZonedDateTime createdAt;
+    // sent messages are removed by Mongo a week after they were sent
+    @Indexed(name = "sentAt_ttl", expireAfter = "7d")
+    private ZonedDateTime sentAt;
+}
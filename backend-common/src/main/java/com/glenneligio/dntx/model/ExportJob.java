@@ -0,0 +1,40 @@
+package com.glenneligio.dntx.model;
+
+import com.glenneligio.dntx.enums.ExportJobStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-memory state of an export job, the generated file lives in the export spool directory
+@Data
+@NoArgsConstructor
+public class ExportJob {
+
+    private String id;
+    private String username;
+    private ZonedDateTime afterDate;
+    private ZonedDateTime beforeDate;
+
+    private volatile ExportJobStatus status;
+    private volatile long totalTransactions;
+    private final AtomicLong processedTransactions = new AtomicLong();
+    private volatile String error;
+    private volatile Path file;
+
+    private ZonedDateTime createdAt;
+    private volatile ZonedDateTime completedAt;
+    private volatile ZonedDateTime expiresAt;
+
+    public boolean isActive() {
+        return status == ExportJobStatus.PENDING || status == ExportJobStatus.RUNNING;
+    }
+
+    public int getPercentComplete() {
+        if (status == ExportJobStatus.COMPLETED) return 100;
+        if (totalTransactions <= 0) return 0;
+        return (int) Math.min(99, processedTransactions.get() * 100 / totalTransactions);
+    }
+}
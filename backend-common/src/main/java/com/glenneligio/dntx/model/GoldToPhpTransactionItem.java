@@ -1,9 +1,7 @@
 package com.glenneligio.dntx.model;
 
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glenneligio.dntx.exception.ApiException;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -12,6 +10,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.http.HttpStatus;
 
 import java.io.Serializable;
 
@@ -36,23 +35,17 @@ public class GoldToPhpTransactionItem extends TransactionItem {
     private String methodOfPayment;
 
     public GoldToPhpTransactionItem(TransactionItem t)  {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.findAndRegisterModules();
-        try {
-            String txString = mapper.writeValueAsString(t);
-            JsonNode jsonNode = mapper.readTree(txString);
-            this.setName(jsonNode.get("name").asText());
-            this.setPhpPaid(jsonNode.get("phpPaid").asDouble());
-            this.setGoldPerPhp(jsonNode.get("goldPerPhp").asDouble());
-            this.setMethodOfPayment(jsonNode.get("methodOfPayment").asText());
-        } catch (JsonProcessingException e) {
-            e.printStackTrace();
+        if (!(t instanceof GoldToPhpTransactionItem src)) {
+            throw new ApiException("Transaction item is not a GOLD2PHP transaction item", HttpStatus.BAD_REQUEST);
         }
+        this.name = src.getName();
+        this.phpPaid = src.getPhpPaid();
+        this.goldPerPhp = src.getGoldPerPhp();
+        this.methodOfPayment = src.getMethodOfPayment();
     }
 
-
     public TransactionItem update(TransactionItem src) {
-        log.info("Updating gold to php transaction: {}", src);
+        log.debug("Updating gold to php transaction: {}", src);
         GoldToPhpTransactionItem convertedSrc = new GoldToPhpTransactionItem(src);
         this.name = convertedSrc.getName();
         this.phpPaid = convertedSrc.getPhpPaid();
@@ -1,7 +1,5 @@
 package com.glenneligio.dntx.model;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.glenneligio.dntx.exception.ApiException;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
@@ -26,22 +24,16 @@ public class ItemToGoldTransactionItem extends TransactionItem{
     private Double itemPriceInGold;
 
     public ItemToGoldTransactionItem(TransactionItem t)  {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.findAndRegisterModules();
-        try {
-            String txString = mapper.writeValueAsString(t);
-            log.info(txString);
-            JsonNode jsonNode = mapper.readTree(txString);
-            this.setItemName(jsonNode.get("itemName").asText());
-            this.setItemQuantity(jsonNode.get("itemQuantity").asLong());
-            this.setItemPriceInGold(jsonNode.get("itemPriceInGold").asDouble());
-        } catch (Exception e) {
-            throw new ApiException("Something when wrong went parsing TransactionItem to ItemToGoldTxItem", HttpStatus.BAD_REQUEST);
+        if (!(t instanceof ItemToGoldTransactionItem src)) {
+            throw new ApiException("Transaction item is not an ITEM2GOLD transaction item", HttpStatus.BAD_REQUEST);
         }
+        this.itemName = src.getItemName();
+        this.itemQuantity = src.getItemQuantity();
+        this.itemPriceInGold = src.getItemPriceInGold();
     }
 
     public TransactionItem update(TransactionItem t) {
-        log.info("Updating item to gold transaction: {}", t);
+        log.debug("Updating item to gold transaction: {}", t);
         ItemToGoldTransactionItem src = new ItemToGoldTransactionItem(t);
         this.itemPriceInGold = src.getItemPriceInGold();
         this.itemQuantity = src.getItemQuantity();
@@ -26,6 +26,7 @@ public class ResetPasswordToken {
     private String id;
     @NotBlank(message = "Username can't be blank")
     private String accountId;
+    @Indexed
     @NotBlank(message = "Token can't be blank")
     private String token;
     @Future(message = "Token expiration date must be future")
@@ -12,7 +12,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import org.springframework.http.HttpStatus;
@@ -27,17 +29,25 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 @NoArgsConstructor
 @Document(collection = "transactions")
+// creator equality, dateFinished range and (dateFinished, _id) sort are served by the index order,
+// type is last so the $in over transaction types is filtered on the index keys before fetching documents
+@CompoundIndexes({
+        @CompoundIndex(name = "creator_dateFinished_id_type", def = "{'creator._id': 1, 'dateFinished': -1, '_id': -1, 'type': 1}")
+})
 @JsonIgnoreProperties(value = {"creator"})
 public class Transaction implements Serializable {
 
     @Id
     private String id;
 
+    @Version
+    private Long version;
+
     @NotBlank(message = "Transaction's username must not be blank")
     private String username;
-    @DBRef
+    @Valid
     @NotNull(message = "Transaction's creator must not be null")
-    private Account creator;
+    private TransactionCreator creator;
     @PastOrPresent(message = "Transaction's date finished must be only present or past")
     private ZonedDateTime dateFinished;
     private List<FileAttachment> fileAttachments;
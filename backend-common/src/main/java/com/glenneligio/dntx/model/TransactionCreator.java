@@ -0,0 +1,24 @@
+package com.glenneligio.dntx.model;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// Denormalized snapshot of the creator account embedded in each transaction, the id is stored as creator._id
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionCreator implements Serializable {
+
+    private String id;
+    @NotBlank(message = "Transaction creator's username must not be blank")
+    private String username;
+
+    public TransactionCreator(Account account) {
+        this.id = account.getId();
+        this.username = account.getUsername();
+    }
+}
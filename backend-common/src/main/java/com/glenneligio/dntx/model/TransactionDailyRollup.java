@@ -0,0 +1,45 @@
+package com.glenneligio.dntx.model;
+
+import com.glenneligio.dntx.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+// Totals of the non reversed transactions of a creator, per type and UTC day, maintained with $inc
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "transaction_daily_rollups")
+@CompoundIndexes({
+        @CompoundIndex(name = "creatorId_type_day", def = "{'creatorId': 1, 'type': 1, 'day': 1}", unique = true)
+})
+public class TransactionDailyRollup {
+
+    @Id
+    private String id;
+
+    private String creatorId;
+    private TransactionType type;
+    private ZonedDateTime day;
+
+    private long transactionCount;
+    private long itemCount;
+    private double goldPaid;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal ccAmount;
+    private double phpPaid;
+    private double itemGold;
+    private double goldPerCCSum;
+    private long goldPerCCCount;
+    private double goldPerPhpSum;
+    private long goldPerPhpCount;
+}
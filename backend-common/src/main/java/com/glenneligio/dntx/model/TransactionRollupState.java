@@ -0,0 +1,25 @@
+package com.glenneligio.dntx.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.ZonedDateTime;
+
+// Written once the rollups were built from the whole transactions collection, until then the stats read the transactions
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "transaction_rollup_state")
+public class TransactionRollupState {
+
+    public static final String DAILY_ROLLUPS = "transaction_daily_rollups";
+
+    @Id
+    private String id;
+
+    private ZonedDateTime builtAt;
+    private long rollups;
+}
@@ -0,0 +1,87 @@
+package com.glenneligio.dntx.repository;
+
+import com.glenneligio.dntx.enums.TransactionType;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Objects;
+
+/*
+ * Builds the filter of the own transactions queries, only the predicates that were actually supplied end up in it.
+ * The shapes follow the creator_dateFinished_id_type index: equality on the creator, a range on dateFinished
+ * that is only bounded on the given sides, and the type filter is left out when every type is requested.
+ */
+public class TransactionQueryBuilder {
+
+    // newest first, with the id as tie breaker so the order is stable across pages
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("dateFinished"), Sort.Order.desc("id"));
+
+    private final String creatorId;
+    private EnumSet<TransactionType> types;
+    private ZonedDateTime afterDate;
+    private ZonedDateTime beforeDate;
+    private boolean beforeExclusive;
+
+    private TransactionQueryBuilder(String creatorId) {
+        this.creatorId = creatorId;
+    }
+
+    public static TransactionQueryBuilder ownedBy(String creatorId) {
+        return new TransactionQueryBuilder(creatorId);
+    }
+
+    public TransactionQueryBuilder types(Collection<TransactionType> txTypes) {
+        if (txTypes == null || txTypes.isEmpty()) {
+            this.types = null;
+        } else {
+            EnumSet<TransactionType> requested = EnumSet.noneOf(TransactionType.class);
+            txTypes.stream().filter(Objects::nonNull).forEach(requested::add);
+            this.types = requested.containsAll(EnumSet.allOf(TransactionType.class)) ? null : requested;
+        }
+        return this;
+    }
+
+    public TransactionQueryBuilder finishedAfter(ZonedDateTime afterDate) {
+        this.afterDate = afterDate;
+        return this;
+    }
+
+    public TransactionQueryBuilder finishedBefore(ZonedDateTime beforeDate) {
+        this.beforeDate = beforeDate;
+        this.beforeExclusive = false;
+        return this;
+    }
+
+    // Leaves the beforeDate instant itself out, for ranges that are half open like the stats buckets
+    public TransactionQueryBuilder finishedStrictlyBefore(ZonedDateTime beforeDate) {
+        this.beforeDate = beforeDate;
+        this.beforeExclusive = true;
+        return this;
+    }
+
+    public Criteria toCriteria() {
+        Criteria criteria = Criteria.where("creator.id").is(creatorId);
+        if (afterDate != null || beforeDate != null) {
+            Criteria dateFinished = criteria.and("dateFinished");
+            if (afterDate != null) dateFinished.gte(afterDate);
+            if (beforeDate != null) {
+                if (beforeExclusive) dateFinished.lt(beforeDate);
+                else dateFinished.lte(beforeDate);
+            }
+        }
+        if (types != null) {
+            // a single type is sent as an equality, which gives the planner a point bound instead of an $in
+            if (types.size() == 1) criteria.and("type").is(types.iterator().next());
+            else criteria.and("type").in(types);
+        }
+        return criteria;
+    }
+
+    public Query toQuery() {
+        return Query.query(toCriteria());
+    }
+}
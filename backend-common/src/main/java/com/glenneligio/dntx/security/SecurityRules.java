@@ -0,0 +1,45 @@
+package com.glenneligio.dntx.security;
+
+import org.springframework.web.cors.CorsConfiguration;
+
+import java.time.Duration;
+import java.util.List;
+
+/*
+ * Access rules of the GET endpoints and the CORS settings, shared by the servlet backend and the reactive read API
+ * so a read is authorized the same way by both. The write rules only exist in the servlet backend.
+ */
+public final class SecurityRules {
+
+    public static final String ADMIN = "ADMIN";
+    public static final String[] ACCOUNT_AUTHORITIES = {"ADMIN", "USER"};
+
+    // in matching order, the last one matches every GET
+    public static final List<ReadRule> READ_RULES = List.of(
+            new ReadRule("/actuator/**", ReadAccess.PERMIT_ALL), // For Spring Actuator
+            new ReadRule("/api/*/transactions/*", ReadAccess.PERMIT_ALL),
+            new ReadRule("/api/*/accounts/@self/**", ReadAccess.ACCOUNT),
+            new ReadRule("/**", ReadAccess.AUTHENTICATED));
+
+    private SecurityRules() {}
+
+    public static CorsConfiguration corsConfiguration() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOrigins(List.of("*"));
+        configuration.setAllowedMethods(List.of("*"));
+        configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of("*"));
+        configuration.setMaxAge(Duration.ofMinutes(10));
+        return configuration;
+    }
+
+    public enum ReadAccess {
+        PERMIT_ALL,
+        // an ADMIN or USER account
+        ACCOUNT,
+        AUTHENTICATED
+    }
+
+    public record ReadRule(String pattern, ReadAccess access) {
+    }
+}
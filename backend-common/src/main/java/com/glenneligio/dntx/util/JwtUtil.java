@@ -0,0 +1,136 @@
+package com.glenneligio.dntx.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+@Service
+@Slf4j
+public class JwtUtil {
+
+    // Fetch JWT in Config props
+    @Value("${dntx.secret-key}")
+    private String SECRET_KEY;
+
+    @Value("${dntx.security.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    // Recently verified tokens keyed by the SHA-256 of the token, every entry expires with its token
+    private Cache<String, TokenClaims> claimsCache;
+
+    @PostConstruct
+    public void initClaimsCache() {
+        claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, TokenClaims>() {
+                    @Override
+                    public long expireAfterCreate(String tokenHash, TokenClaims claims, long currentTime) {
+                        if (claims.expiration() == null) return 0;
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(claims.expiration().toEpochMilli() - System.currentTimeMillis(), 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenHash, TokenClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenHash, TokenClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    // GENERATE JWT TOKENS
+    public String generateToken(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        return createToken(claims, userDetails.getUsername());
+    }
+
+    public String generateRefreshToken(UserDetails userDetails){
+        Map<String, Object> claims = new HashMap<>();
+        return createRefreshToken(claims, userDetails.getUsername());
+    }
+
+    private String createToken(Map<String, Object> claims, String username) {
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(username)
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + (1000 * 60 * 60 * 3)))
+                .signWith(SignatureAlgorithm.HS256, SECRET_KEY).compact();
+    }
+
+    private String createRefreshToken(Map<String, Object> claims, String username) {
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(username)
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + (1000L * 60 * 60 * 24)))
+                .signWith(SignatureAlgorithm.HS256, SECRET_KEY).compact();
+    }
+
+    // VALIDATE JWT TOKEN
+    public boolean validateToken(String token, UserDetails userDetails) {
+        return validateClaims(parseClaims(token), userDetails);
+    }
+
+    // Validates already parsed claims, so a request only verifies the token signature once
+    public boolean validateClaims(TokenClaims claims, UserDetails userDetails) {
+        return (claims.subject().equals(userDetails.getUsername()) && claims.expiration() != null && !claims.expiration().isBefore(Instant.now()));
+    }
+
+    // EXTRACTING CLAIM(S)
+    // The signature is only verified the first time a token is seen, concurrent requests with the same token share the immutable claims
+    public TokenClaims parseClaims(String token) {
+        return claimsCache.get(hashToken(token), tokenHash -> {
+            Claims claims = extractAllClaims(token);
+            Date expiration = claims.getExpiration();
+            return new TokenClaims(claims.getSubject(), expiration != null ? expiration.toInstant() : null);
+        });
+    }
+
+    private Claims extractAllClaims(String token) {
+        return Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(token).getBody();
+    }
+
+    private String hashToken(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            // SHA-256 is required on every Java platform
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public String extractUsername(String token) {
+        return parseClaims(token).subject();
+    }
+
+    // The claims the authentication relies on, only the subject and expiry of a token are kept
+    public record TokenClaims(String subject, Instant expiration) {
+    }
+
+}
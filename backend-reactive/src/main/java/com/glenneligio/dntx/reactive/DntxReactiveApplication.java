@@ -0,0 +1,13 @@
+package com.glenneligio.dntx.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class DntxReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(DntxReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,65 @@
+package com.glenneligio.dntx.reactive.config;
+
+import com.glenneligio.dntx.dtos.DnTxUserDetails;
+import com.glenneligio.dntx.reactive.filters.JwtAuthenticationManager;
+import com.glenneligio.dntx.reactive.repository.ReactiveAccountRepository;
+import com.glenneligio.dntx.security.SecurityRules;
+import com.glenneligio.dntx.util.JwtUtil;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+
+// Same access rules as the read endpoints of the servlet backend, the token verification comes from the shared module
+@Configuration
+@Import(JwtUtil.class)
+@EnableWebFluxSecurity
+public class SecurityConfiguration {
+
+    @Bean
+    public SecurityWebFilterChain filterChain(ServerHttpSecurity http, JwtAuthenticationManager jwtAuthenticationManager) {
+        AuthenticationWebFilter jwtAuthFilter = new AuthenticationWebFilter(jwtAuthenticationManager);
+        jwtAuthFilter.setServerAuthenticationConverter(jwtAuthenticationManager);
+
+        http.cors(Customizer.withDefaults());
+        http.csrf(ServerHttpSecurity.CsrfSpec::disable);
+        http.httpBasic(ServerHttpSecurity.HttpBasicSpec::disable);
+        http.formLogin(ServerHttpSecurity.FormLoginSpec::disable);
+        http.securityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+        http.addFilterAt(jwtAuthFilter, SecurityWebFiltersOrder.AUTHENTICATION);
+        http.authorizeExchange(exchanges -> {
+            for (SecurityRules.ReadRule rule : SecurityRules.READ_RULES) {
+                ServerHttpSecurity.AuthorizeExchangeSpec.Access access = exchanges.pathMatchers(HttpMethod.GET, rule.pattern());
+                switch (rule.access()) {
+                    case PERMIT_ALL -> access.permitAll();
+                    case ACCOUNT -> access.hasAnyAuthority(SecurityRules.ACCOUNT_AUTHORITIES);
+                    case AUTHENTICATED -> access.authenticated();
+                }
+            }
+            exchanges.anyExchange().hasAnyAuthority(SecurityRules.ADMIN);
+        });
+        return http.build();
+    }
+
+    @Bean
+    public ReactiveUserDetailsService userDetailsService(ReactiveAccountRepository accountRepository) {
+        return username -> accountRepository.findByUsername(username).map(DnTxUserDetails::new);
+    }
+
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource() {
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", SecurityRules.corsConfiguration());
+        return source;
+    }
+}
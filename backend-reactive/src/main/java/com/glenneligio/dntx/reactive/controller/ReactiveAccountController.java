@@ -0,0 +1,54 @@
+package com.glenneligio.dntx.reactive.controller;
+
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.exception.ApiException;
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.reactive.service.ReactiveTransactionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/accounts")
+@Slf4j
+public class ReactiveAccountController {
+
+    @Autowired
+    private ReactiveTransactionService transactionService;
+
+    // Every own transaction as NDJSON lines or server-sent events, newest first, written as fast as the client reads them
+    @GetMapping(value = "/@self/transactions", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Transaction> streamAccountTransactions(@RequestParam(defaultValue = "") String txType,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime beforeDate,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime afterDate,
+                                                       Authentication authentication) {
+        log.info("Streaming own transactions of {}", authentication.getName());
+        List<TransactionType> types = getTransactionTypes(txType);
+        return transactionService.streamTransactionsByCreatorUsernameTypeAndDateFinished(authentication.getName(), types, afterDate, beforeDate);
+    }
+
+    private List<TransactionType> getTransactionTypes(String txType) {
+        List<TransactionType> types = new ArrayList<>();
+        if(!txType.isBlank()) {
+            Arrays.stream(txType.split(",")).forEach(t -> {
+                TransactionType type = TransactionType.getTransactionType(t.trim());
+                if (type == null) throw new ApiException("Invalid transaction type " + t, HttpStatus.BAD_REQUEST);
+                types.add(type);
+            });
+        }
+        return types;
+    }
+}
@@ -0,0 +1,26 @@
+package com.glenneligio.dntx.reactive.controller;
+
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.reactive.service.ReactiveTransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v1/transactions")
+public class ReactiveTransactionController {
+
+    @Autowired
+    private ReactiveTransactionService service;
+
+    @GetMapping("/{id}")
+    public Mono<Transaction> getTransactionById(@PathVariable String id) {
+        return service.getTransactionById(id);
+    }
+
+    @GetMapping("/search")
+    public Mono<Transaction> getTransactionByUsernameAndId(@RequestParam String username,
+                                                           @RequestParam String id) {
+        return service.getTransactionByUsernameAndId(username, id);
+    }
+}
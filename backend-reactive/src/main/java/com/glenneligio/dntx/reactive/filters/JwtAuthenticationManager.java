@@ -0,0 +1,53 @@
+package com.glenneligio.dntx.reactive.filters;
+
+import com.glenneligio.dntx.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/*
+ * Authenticates the Bearer token of a request the same way JwtAuthFilter does in the servlet backend:
+ * the token is parsed once, then its subject has to be an existing account and the token must not be expired.
+ * JwtUtil is the one of the servlet backend, so the verified claims of a token are cached here as well.
+ */
+@Component
+public class JwtAuthenticationManager implements ReactiveAuthenticationManager, ServerAuthenticationConverter {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private ReactiveUserDetailsService userDetailsService;
+
+    // requests without a Bearer token continue unauthenticated
+    @Override
+    public Mono<Authentication> convert(ServerWebExchange exchange) {
+        String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.startsWith("Bearer ")) return Mono.empty();
+        String jwt = authorization.substring(7);
+        return Mono.just(new UsernamePasswordAuthenticationToken(jwt, jwt));
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String jwt = (String) authentication.getCredentials();
+        JwtUtil.TokenClaims claims;
+        try {
+            claims = jwtUtil.parseClaims(jwt);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return Mono.error(new BadCredentialsException("Invalid token", ex));
+        }
+        return userDetailsService.findByUsername(claims.subject())
+                .filter(userDetails -> jwtUtil.validateClaims(claims, userDetails))
+                .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Invalid token")))
+                .map(userDetails -> new UsernamePasswordAuthenticationToken(userDetails, jwt, userDetails.getAuthorities()));
+    }
+}
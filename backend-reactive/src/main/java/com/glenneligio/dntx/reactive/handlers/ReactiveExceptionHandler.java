@@ -0,0 +1,27 @@
+package com.glenneligio.dntx.reactive.handlers;
+
+import com.glenneligio.dntx.dtos.ExceptionResponse;
+import com.glenneligio.dntx.exception.ApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Errors raised before the first element is written, a stream failing halfway can only be cut off
+@RestControllerAdvice
+@Slf4j
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(value = ApiException.class)
+    public ResponseEntity<ExceptionResponse> handleApiException(ApiException ex, ServerWebExchange exchange) {
+        log.debug("Request {} failed", exchange.getRequest().getPath(), ex);
+        ExceptionResponse response = new ExceptionResponse(List.of(ex.getMessage()),
+                LocalDateTime.now(),
+                "uri=" + exchange.getRequest().getPath().value());
+        return new ResponseEntity<>(response, ex.getStatus());
+    }
+}
@@ -0,0 +1,10 @@
+package com.glenneligio.dntx.reactive.repository;
+
+import com.glenneligio.dntx.model.Account;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveAccountRepository extends ReactiveMongoRepository<Account, String> {
+
+    Mono<Account> findByUsername(String username);
+}
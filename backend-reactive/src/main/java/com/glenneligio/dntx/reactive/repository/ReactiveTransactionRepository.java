@@ -0,0 +1,10 @@
+package com.glenneligio.dntx.reactive.repository;
+
+import com.glenneligio.dntx.model.Transaction;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveTransactionRepository extends ReactiveMongoRepository<Transaction, String> {
+
+    Mono<Transaction> findByUsernameAndId(String username, String id);
+}
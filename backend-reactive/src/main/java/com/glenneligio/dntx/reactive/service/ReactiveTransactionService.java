@@ -0,0 +1,63 @@
+package com.glenneligio.dntx.reactive.service;
+
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.exception.ApiException;
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.reactive.repository.ReactiveAccountRepository;
+import com.glenneligio.dntx.reactive.repository.ReactiveTransactionRepository;
+import com.glenneligio.dntx.repository.TransactionQueryBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Service
+public class ReactiveTransactionService {
+
+    @Autowired
+    private ReactiveTransactionRepository transactionRepository;
+    @Autowired
+    private ReactiveAccountRepository accountRepository;
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    // Number of transactions fetched per round trip, the cursor only asks for the next batch once the client took the previous one
+    @Value("${dntx.stream.cursor-batch-size:500}")
+    private int cursorBatchSize;
+
+    public Mono<Transaction> getTransactionById(String id) {
+        return transactionRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ApiException("No transaction exist with specified id", HttpStatus.NOT_FOUND)));
+    }
+
+    public Mono<Transaction> getTransactionByUsernameAndId(String username, String id) {
+        return transactionRepository.findByUsernameAndId(username, id)
+                .switchIfEmpty(Mono.error(() -> new ApiException("Not transaction exist with specified username and id", HttpStatus.NOT_FOUND)));
+    }
+
+    // Same filter and order as the own transactions pages of the servlet backend, streamed instead of paged
+    public Flux<Transaction> streamTransactionsByCreatorUsernameTypeAndDateFinished(String username,
+                                                                                    List<TransactionType> types,
+                                                                                    ZonedDateTime afterDate,
+                                                                                    ZonedDateTime beforeDate) {
+        return accountRepository.findByUsername(username)
+                .switchIfEmpty(Mono.error(() -> new ApiException("No account with specified username was found", HttpStatus.NOT_FOUND)))
+                .flatMapMany(account -> {
+                    Query query = TransactionQueryBuilder.ownedBy(account.getId())
+                            .types(types)
+                            .finishedAfter(afterDate)
+                            .finishedBefore(beforeDate)
+                            .toQuery()
+                            .with(TransactionQueryBuilder.NEWEST_FIRST)
+                            .cursorBatchSize(cursorBatchSize);
+                    return reactiveMongoTemplate.find(query, Transaction.class);
+                });
+    }
+}
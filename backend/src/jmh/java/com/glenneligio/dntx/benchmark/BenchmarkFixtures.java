@@ -0,0 +1,121 @@
+package com.glenneligio.dntx.benchmark;
+
+import com.glenneligio.dntx.enums.AccountType;
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.model.*;
+import com.glenneligio.dntx.service.TransactionMetrics;
+import com.glenneligio.dntx.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Generated data shared by the benchmarks. A fixed seed is used so that runs are comparable release over release.
+ */
+public final class BenchmarkFixtures {
+
+    public static final long SEED = 20230415L;
+
+    private static final String[] CUSTOMER_NAMES = {"Juan Dela Cruz", "Maria Santos", "Jose Rizal", "Ana Reyes", "Pedro Penduko"};
+    private static final String[] PAYMENT_METHODS = {"GCash", "PayMaya", "BDO", "BPI", "Cash"};
+    private static final String[] ITEM_NAMES = {"Dragon Jade", "Goddess Tear", "Lv 95 Legend Box", "Superior Talisman", "Enhancement Cube"};
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private BenchmarkFixtures() {}
+
+    public static Account account() {
+        Account account = new Account();
+        account.setId(new ObjectId().toHexString());
+        account.setUsername("benchtrader");
+        account.setEmail("benchtrader@dntx.com");
+        account.setFullName("Bench Trader");
+        account.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z7GyTFkDqVsvKZ0ZxJGaJ0Y6");
+        account.setAccountType(AccountType.USER);
+        account.setDateRegistered(ZonedDateTime.now(ZoneOffset.UTC).minusYears(2));
+        return account;
+    }
+
+    public static List<Transaction> transactions(int count, int maxItemsPerTransaction) {
+        Random random = new Random(SEED);
+        Account creator = account();
+        ZonedDateTime start = ZonedDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TransactionType type = TYPES[random.nextInt(TYPES.length)];
+            Transaction transaction = new Transaction();
+            transaction.setId(new ObjectId().toHexString());
+            transaction.setUsername(CUSTOMER_NAMES[random.nextInt(CUSTOMER_NAMES.length)]);
+            transaction.setCreator(new TransactionCreator(creator));
+            transaction.setType(type);
+            transaction.setReversed(random.nextInt(50) == 0);
+            transaction.setDateFinished(start.plusSeconds(random.nextInt(60 * 60 * 24 * 700) + 1L));
+
+            int fileAttachmentCount = random.nextInt(3);
+            List<FileAttachment> fileAttachments = new ArrayList<>(fileAttachmentCount);
+            for (int j = 0; j < fileAttachmentCount; j++) {
+                fileAttachments.add(new FileAttachment("receipt-" + i + "-" + j + ".png", "https://i.imgur.com/" + Long.toHexString(random.nextLong()) + ".png"));
+            }
+            transaction.setFileAttachments(fileAttachments);
+
+            int itemCount = 1 + random.nextInt(maxItemsPerTransaction);
+            List<TransactionItem> items = new ArrayList<>(itemCount);
+            for (int j = 0; j < itemCount; j++) {
+                items.add(transactionItem(type, random));
+            }
+            transaction.setTransactionItems(items);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    public static Transaction transaction(TransactionType type, int itemCount) {
+        Random random = new Random(SEED);
+        Transaction transaction = transactions(1, 1).get(0);
+        transaction.setType(type);
+        List<TransactionItem> items = new ArrayList<>(itemCount);
+        for (int j = 0; j < itemCount; j++) {
+            items.add(transactionItem(type, random));
+        }
+        transaction.setTransactionItems(items);
+        return transaction;
+    }
+
+    public static TransactionItem transactionItem(TransactionType type, Random random) {
+        return switch (type) {
+            case CC2GOLD -> {
+                BigDecimal ccAmount = BigDecimal.valueOf(1000L + random.nextInt(50000));
+                double goldPerCC = 0.5 + random.nextInt(100) / 100.0;
+                yield new CcToGoldTransactionItem(ccAmount, goldPerCC, ccAmount.doubleValue() * goldPerCC);
+            }
+            case GOLD2PHP -> new GoldToPhpTransactionItem(CUSTOMER_NAMES[random.nextInt(CUSTOMER_NAMES.length)],
+                    100.0 + random.nextInt(10000),
+                    5.0 + random.nextInt(1000) / 100.0,
+                    PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]);
+            case ITEM2GOLD -> new ItemToGoldTransactionItem(ITEM_NAMES[random.nextInt(ITEM_NAMES.length)],
+                    1L + random.nextInt(20),
+                    50.0 + random.nextInt(5000));
+        };
+    }
+
+    // TransactionService without the Spring context, only the collaborators that do not need Mongo are set
+    public static TransactionService transactionService() {
+        return new TransactionService(null,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                null,
+                null,
+                null,
+                null,
+                new TransactionMetrics(new SimpleMeterRegistry()),
+                100,
+                500,
+                500,
+                500);
+    }
+}
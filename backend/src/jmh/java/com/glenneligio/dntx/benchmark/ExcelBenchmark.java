@@ -0,0 +1,55 @@
+package com.glenneligio.dntx.benchmark;
+
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Excel export and import of the transactions, one item per transaction so that rowCount is the number of sheet rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class ExcelBenchmark {
+
+    private static final String EXCEL_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    @Param({"1000", "10000", "100000"})
+    private int rowCount;
+
+    private TransactionService transactionService;
+    private List<Transaction> transactions;
+    private MockMultipartFile excelFile;
+
+    @Setup
+    public void setup() {
+        transactionService = BenchmarkFixtures.transactionService();
+        transactions = BenchmarkFixtures.transactions(rowCount, 1);
+        byte[] excelBytes = transactionService.listToExcel(transactions).readAllBytes();
+        excelFile = new MockMultipartFile("file", "transactions.xlsx", EXCEL_CONTENT_TYPE, excelBytes);
+    }
+
+    @Benchmark
+    public void listToExcel() {
+        transactionService.listToExcel(transactions, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public List<Transaction> excelToList() {
+        return transactionService.excelToList(excelFile);
+    }
+
+    @Benchmark
+    public void excelToChunks(Blackhole blackhole) {
+        transactionService.excelToChunks(excelFile, 500, blackhole::consume);
+    }
+}
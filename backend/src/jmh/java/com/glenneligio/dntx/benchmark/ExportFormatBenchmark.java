@@ -0,0 +1,64 @@
+package com.glenneligio.dntx.benchmark;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.service.CsvTransactionExporter;
+import com.glenneligio.dntx.service.ExcelTransactionExporter;
+import com.glenneligio.dntx.service.ITransactionExporter;
+import com.glenneligio.dntx.service.NdjsonTransactionExporter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Throughput of the export formats on the same transactions, the source filters an in-memory list by type
+ * the way the Mongo cursors do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class ExportFormatBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rowCount;
+
+    private List<Transaction> transactions;
+    private ITransactionExporter.TransactionSource source;
+    private ITransactionExporter excelExporter;
+    private ITransactionExporter csvExporter;
+    private ITransactionExporter ndjsonExporter;
+
+    @Setup
+    public void setup() {
+        transactions = BenchmarkFixtures.transactions(rowCount, 1);
+        source = txTypes -> transactions.stream().filter(tx -> txTypes.contains(tx.getType()));
+
+        excelExporter = new ExcelTransactionExporter();
+        ReflectionTestUtils.setField(excelExporter, "excelService", BenchmarkFixtures.transactionService());
+        csvExporter = new CsvTransactionExporter();
+        ndjsonExporter = new NdjsonTransactionExporter();
+        ReflectionTestUtils.setField(ndjsonExporter, "objectMapper", JsonMapper.builder().findAndAddModules().build());
+    }
+
+    @Benchmark
+    public void xlsx() throws IOException {
+        excelExporter.export(source, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void csv() throws IOException {
+        csvExporter.export(source, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void ndjson() throws IOException {
+        ndjsonExporter.export(source, OutputStream.nullOutputStream());
+    }
+}
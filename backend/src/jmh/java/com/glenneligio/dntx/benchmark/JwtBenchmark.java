@@ -0,0 +1,53 @@
+package com.glenneligio.dntx.benchmark;
+
+import com.glenneligio.dntx.dtos.DnTxUserDetails;
+import com.glenneligio.dntx.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private DnTxUserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET_KEY", "benchmarkSecretKey");
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", 10_000L);
+        jwtUtil.initClaimsCache();
+        userDetails = new DnTxUserDetails(BenchmarkFixtures.account());
+        token = jwtUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, userDetails);
+    }
+
+    // the path taken by JwtAuthFilter: one parse, then validation on the parsed claims,
+    // the same token is sent again so the claims come from the cache after the first call
+    @Benchmark
+    public boolean parseAndValidateClaims() {
+        return jwtUtil.validateClaims(jwtUtil.parseClaims(token), userDetails);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+}
@@ -0,0 +1,120 @@
+package com.glenneligio.dntx.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.glenneligio.dntx.model.Transaction;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.MDC;
+
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Cost of a log call on the request threads with the appenders of logback-spring.xml, writing into a null stream
+ * so only the formatting and the hand off are measured. The payload benchmarks are the log lines that used to be
+ * at INFO, the guarded one is what they are now with DEBUG disabled.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    @Param({"pattern", "json"})
+    private String encoder;
+
+    @Param({"sync", "async"})
+    private String mode;
+
+    private LoggerContext loggerContext;
+    private Logger logger;
+    private Transaction transaction;
+
+    @State(Scope.Thread)
+    public static class RequestState {
+        @Setup
+        public void setup() {
+            MDC.put("correlationId", UUID.randomUUID().toString());
+        }
+
+        @TearDown
+        public void tearDown() {
+            MDC.clear();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        transaction = BenchmarkFixtures.transactions(1, 1).get(0);
+        loggerContext = new LoggerContext();
+
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(loggerContext);
+        console.setEncoder(createEncoder());
+        console.setOutputStream(OutputStream.nullOutputStream());
+        console.start();
+
+        Appender<ILoggingEvent> appender = console;
+        if ("async".equals(mode)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(loggerContext);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(0);
+            async.setNeverBlock(true);
+            async.addAppender(console);
+            async.start();
+            appender = async;
+        }
+
+        logger = loggerContext.getLogger(LoggingBenchmark.class);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+    }
+
+    @TearDown
+    public void tearDown() {
+        loggerContext.stop();
+    }
+
+    private Encoder<ILoggingEvent> createEncoder() {
+        if ("json".equals(encoder)) {
+            LogstashEncoder logstashEncoder = new LogstashEncoder();
+            logstashEncoder.setContext(loggerContext);
+            logstashEncoder.start();
+            return logstashEncoder;
+        }
+        PatternLayoutEncoder patternEncoder = new PatternLayoutEncoder();
+        patternEncoder.setContext(loggerContext);
+        patternEncoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p [%15.15t] [%X{correlationId:-}] %-40.40logger{39} : %m%n");
+        patternEncoder.start();
+        return patternEncoder;
+    }
+
+    @Benchmark
+    public void infoSummary(RequestState state) {
+        logger.info("Creating own transaction of {}", transaction.getUsername());
+    }
+
+    @Benchmark
+    public void infoWithPayload(RequestState state) {
+        logger.info("Creating own transaction {}", transaction);
+    }
+
+    @Benchmark
+    public void guardedDebugWithPayload(RequestState state) {
+        if (logger.isDebugEnabled()) logger.debug("Creating own transaction {}", transaction);
+    }
+}
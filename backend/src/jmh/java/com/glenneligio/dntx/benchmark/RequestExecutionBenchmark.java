@@ -0,0 +1,67 @@
+package com.glenneligio.dntx.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * HTTP load test of a running backend: 400 clients request a page of their own transactions, which goes through
+ * JwtAuthFilter, Mongo and the JSON serialization. Run it once against a backend started with DNTX_EXECUTION_MODE=platform
+ * and once with DNTX_EXECUTION_MODE=virtual on Java 21, against the same Mongo, and compare the two runs.
+ * Throughput is reported per second, the sample time mode reports the latency percentiles including p0.99.
+ * The target is read from the environment, which the exec plugin and the JMH fork inherit:
+ *   DNTX_LOADTEST_BASE_URL (default http://localhost:8080), DNTX_LOADTEST_TOKEN (an access token from /api/v1/accounts/login)
+ *   and DNTX_LOADTEST_PATH (default the first summary page of the own transactions).
+ * Responses other than 2xx, like the 503 of the MongoConcurrencyLimiter, are counted and printed after each iteration.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 30)
+@Fork(1)
+@Threads(400)
+@State(Scope.Benchmark)
+public class RequestExecutionBenchmark {
+
+    private HttpClient httpClient;
+    private HttpRequest request;
+    private final LongAdder failedRequests = new LongAdder();
+
+    @Setup
+    public void setup() {
+        String token = System.getenv("DNTX_LOADTEST_TOKEN");
+        if (token == null || token.isBlank()) {
+            throw new IllegalStateException("DNTX_LOADTEST_TOKEN has to hold an access token of the backend under test");
+        }
+        String baseUrl = System.getenv().getOrDefault("DNTX_LOADTEST_BASE_URL", "http://localhost:8080");
+        String path = System.getenv().getOrDefault("DNTX_LOADTEST_PATH", "/api/v1/accounts/@self/transactions?pageNumber=1&pageSize=10&view=summary");
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportFailures() {
+        System.out.println("Requests without a 2xx response: " + failedRequests.sumThenReset());
+    }
+
+    @Benchmark
+    public int request() throws IOException, InterruptedException {
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) failedRequests.increment();
+        return response.statusCode();
+    }
+}
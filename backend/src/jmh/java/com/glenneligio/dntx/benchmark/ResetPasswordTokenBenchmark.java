@@ -0,0 +1,29 @@
+package com.glenneligio.dntx.benchmark;
+
+import com.glenneligio.dntx.service.ResetPasswordTokenService;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResetPasswordTokenBenchmark {
+
+    private ResetPasswordTokenService resetPasswordTokenService;
+
+    @Setup
+    public void setup() {
+        resetPasswordTokenService = new ResetPasswordTokenService();
+    }
+
+    @Benchmark
+    public String createPasswordToken() throws NoSuchAlgorithmException, InvalidKeySpecException {
+        return resetPasswordTokenService.createPasswordToken();
+    }
+}
@@ -0,0 +1,97 @@
+package com.glenneligio.dntx.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Per item cost of copying a TransactionItem into its typed class.
+ * The *JsonRoundTrip benchmarks reproduce the conversion previously done in the copy constructors
+ * (new ObjectMapper, serialize to String, parse back into a JsonNode) to be compared with the typed copy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionItemConversionBenchmark {
+
+    private CcToGoldTransactionItem ccToGoldItem;
+    private GoldToPhpTransactionItem goldToPhpItem;
+    private ItemToGoldTransactionItem itemToGoldItem;
+    private Transaction transaction;
+
+    @Setup
+    public void setup() {
+        ccToGoldItem = new CcToGoldTransactionItem(BigDecimal.valueOf(12500), 0.85, 10625.0);
+        goldToPhpItem = new GoldToPhpTransactionItem("Juan Dela Cruz", 1500.0, 12.5, "GCash");
+        itemToGoldItem = new ItemToGoldTransactionItem("Dragon Jade", 3L, 2500.0);
+        transaction = BenchmarkFixtures.transaction(TransactionType.CC2GOLD, 10);
+    }
+
+    @Benchmark
+    public List<TransactionItem> convertTransactionItems() {
+        return Transaction.convertTransactionItems(transaction);
+    }
+
+    @Benchmark
+    public CcToGoldTransactionItem ccToGoldTypedCopy() {
+        return new CcToGoldTransactionItem(ccToGoldItem);
+    }
+
+    @Benchmark
+    public CcToGoldTransactionItem ccToGoldJsonRoundTrip() throws JsonProcessingException {
+        JsonNode jsonNode = jsonRoundTrip(ccToGoldItem);
+        CcToGoldTransactionItem item = new CcToGoldTransactionItem();
+        item.setCcAmount(jsonNode.get("ccAmount").decimalValue());
+        item.setGoldPerCC(jsonNode.get("goldPerCC").asDouble());
+        item.setGoldPaid(jsonNode.get("goldPaid").asDouble());
+        return item;
+    }
+
+    @Benchmark
+    public GoldToPhpTransactionItem goldToPhpTypedCopy() {
+        return new GoldToPhpTransactionItem(goldToPhpItem);
+    }
+
+    @Benchmark
+    public GoldToPhpTransactionItem goldToPhpJsonRoundTrip() throws JsonProcessingException {
+        JsonNode jsonNode = jsonRoundTrip(goldToPhpItem);
+        GoldToPhpTransactionItem item = new GoldToPhpTransactionItem();
+        item.setName(jsonNode.get("name").asText());
+        item.setPhpPaid(jsonNode.get("phpPaid").asDouble());
+        item.setGoldPerPhp(jsonNode.get("goldPerPhp").asDouble());
+        item.setMethodOfPayment(jsonNode.get("methodOfPayment").asText());
+        return item;
+    }
+
+    @Benchmark
+    public ItemToGoldTransactionItem itemToGoldTypedCopy() {
+        return new ItemToGoldTransactionItem(itemToGoldItem);
+    }
+
+    @Benchmark
+    public ItemToGoldTransactionItem itemToGoldJsonRoundTrip() throws JsonProcessingException {
+        JsonNode jsonNode = jsonRoundTrip(itemToGoldItem);
+        ItemToGoldTransactionItem item = new ItemToGoldTransactionItem();
+        item.setItemName(jsonNode.get("itemName").asText());
+        item.setItemQuantity(jsonNode.get("itemQuantity").asLong());
+        item.setItemPriceInGold(jsonNode.get("itemPriceInGold").asDouble());
+        return item;
+    }
+
+    private static JsonNode jsonRoundTrip(Object item) throws JsonProcessingException {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.findAndRegisterModules();
+        String txString = mapper.writeValueAsString(item);
+        return mapper.readTree(txString);
+    }
+}
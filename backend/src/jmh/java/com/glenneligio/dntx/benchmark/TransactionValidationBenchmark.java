@@ -0,0 +1,38 @@
+package com.glenneligio.dntx.benchmark;
+
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionValidationBenchmark {
+
+    @Param({"CC2GOLD", "GOLD2PHP", "ITEM2GOLD"})
+    private TransactionType type;
+
+    @Param({"1", "10"})
+    private int itemCount;
+
+    private TransactionService transactionService;
+    private Transaction transaction;
+
+    @Setup
+    public void setup() {
+        transactionService = BenchmarkFixtures.transactionService();
+        transaction = BenchmarkFixtures.transaction(type, itemCount);
+    }
+
+    @Benchmark
+    public Transaction validateTransaction() {
+        transactionService.validateTransaction(transaction);
+        return transaction;
+    }
+}
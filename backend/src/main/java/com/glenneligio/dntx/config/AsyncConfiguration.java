@@ -0,0 +1,68 @@
+package com.glenneligio.dntx.config;
+
+import com.glenneligio.dntx.enums.ExecutionMode;
+import com.glenneligio.dntx.util.VirtualThreads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class AsyncConfiguration {
+
+    // Bounded pool for the export jobs, jobs submitted while the queue is full are rejected
+    @Bean
+    public ThreadPoolTaskExecutor exportJobExecutor(ExecutionMode executionMode,
+                                                    @Value("${dntx.export.jobs.pool-size:2}") int poolSize,
+                                                    @Value("${dntx.export.jobs.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        setThreadFactory(executor, executionMode, "export-job-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Bounded pool sending the email outbox batches, the dispatcher only claims what the queue can take
+    @Bean
+    public ThreadPoolTaskExecutor emailOutboxExecutor(ExecutionMode executionMode,
+                                                      @Value("${dntx.mail.outbox.pool-size:2}") int poolSize,
+                                                      @Value("${dntx.mail.outbox.queue-capacity:4}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        setThreadFactory(executor, executionMode, "email-outbox-");
+        // claimed batches left unsent are claimed again once their lease expires
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Bounded pool writing the NDJSON streams of the async MVC requests, instead of a new thread per stream
+    @Bean
+    public ThreadPoolTaskExecutor streamingResponseExecutor(ExecutionMode executionMode,
+                                                            @Value("${dntx.export.streaming.pool-size:4}") int poolSize,
+                                                            @Value("${dntx.export.streaming.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        setThreadFactory(executor, executionMode, "streaming-response-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // the pool sizes still bound the work, in VIRTUAL mode the pool threads are virtual threads
+    private void setThreadFactory(ThreadPoolTaskExecutor executor, ExecutionMode executionMode, String threadNamePrefix) {
+        if (executionMode == ExecutionMode.VIRTUAL) executor.setThreadFactory(VirtualThreads.threadFactory(threadNamePrefix));
+        else executor.setThreadNamePrefix(threadNamePrefix);
+    }
+}
@@ -0,0 +1,41 @@
+package com.glenneligio.dntx.config;
+
+import com.glenneligio.dntx.enums.ExecutionMode;
+import com.glenneligio.dntx.util.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * dntx.execution.mode selects the threads that run the blocking work: with PLATFORM requests run on Tomcat's
+ * pool (server.tomcat.threads.max), with VIRTUAL every request gets its own virtual thread and the export jobs and
+ * the email outbox batches run on virtual threads too. Mongo then stays bounded by the MongoConcurrencyLimiter.
+ */
+@Configuration
+@Slf4j
+public class ExecutionConfiguration {
+
+    // The mode actually used, VIRTUAL falls back to PLATFORM when the JVM has no virtual threads
+    @Bean
+    public ExecutionMode executionMode(@Value("${dntx.execution.mode:platform}") ExecutionMode requestedMode) {
+        if (requestedMode == ExecutionMode.VIRTUAL && !VirtualThreads.isAvailable()) {
+            log.warn("Virtual threads are not available on Java {}, falling back to platform threads", Runtime.version().feature());
+            return ExecutionMode.PLATFORM;
+        }
+        log.info("Running requests and background jobs on {} threads", requestedMode.name().toLowerCase());
+        return requestedMode;
+    }
+
+    // Replaces Tomcat's pool, the number of concurrent requests is then only bounded by server.tomcat.max-connections
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> requestExecutorCustomizer(ExecutionMode executionMode) {
+        return protocolHandler -> {
+            if (executionMode == ExecutionMode.VIRTUAL) {
+                protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-virtual-"));
+            }
+        };
+    }
+}
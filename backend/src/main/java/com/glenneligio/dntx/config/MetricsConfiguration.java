@@ -0,0 +1,21 @@
+package com.glenneligio.dntx.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Controller latencies (http.server.requests), repository invocations (spring.data.repository.invocations)
+ * and Mongo command latencies per command and collection (mongodb.driver.commands, recorded by the
+ * MongoMetricsCommandListener that Spring Boot registers on the MongoClient) are recorded by the actuator.
+ * The service layer is timed through the @Timed annotations handled by this aspect.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,105 @@
+package com.glenneligio.dntx.config;
+
+import com.glenneligio.dntx.exception.ApiException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Limits the Mongo operations running at the same time, so virtual threads can not pile up thousands of
+ * callers in the driver's connection pool. Callers wait up to acquire-timeout-ms for a permit and get a 503 after that.
+ * The repositories go through the MongoTemplate bean, so the limit covers them as well. Bulk operations are not
+ * beans, the ones handed out by bulkOps are wrapped so their execute takes a permit. Streams only hold
+ * the permit while the cursor is opened. Only loaded in VIRTUAL mode, Tomcat's pool already bounds the platform threads.
+ */
+@Aspect
+@Component
+@Conditional(VirtualExecutionCondition.class)
+@Slf4j
+public class MongoConcurrencyLimiter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Keep it at or below the driver's max pool size (100 by default)
+    @Value("${dntx.execution.mongo.max-concurrent-operations:100}")
+    private int maxConcurrentOperations;
+
+    @Value("${dntx.execution.mongo.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs;
+
+    private Semaphore permits;
+
+    // nested template calls of the same thread reuse its permit, so a caller can not wait on itself
+    private final ThreadLocal<Boolean> holdsPermit = ThreadLocal.withInitial(() -> false);
+
+    @PostConstruct
+    public void initPermits() {
+        permits = new Semaphore(maxConcurrentOperations, true);
+        meterRegistry.gauge("dntx.mongo.permits.available", permits, Semaphore::availablePermits);
+        meterRegistry.gauge("dntx.mongo.permits.waiting", permits, Semaphore::getQueueLength);
+    }
+
+    @Around("execution(* org.springframework.data.mongodb.core.MongoOperations+.find*(..))"
+            + " || execution(* org.springframework.data.mongodb.core.MongoOperations+.count(..))"
+            + " || execution(* org.springframework.data.mongodb.core.MongoOperations+.estimatedCount(..))"
+            + " || execution(* org.springframework.data.mongodb.core.MongoOperations+.exists(..))"
+            + " || execution(* org.springframework.data.mongodb.core.MongoOperations+.insert*(..))"
+            + " || execution(* org.springframework.data.mongodb.core.MongoOperations+.save(..))"
+            + " || execution(* org.springframework.data.mongodb.core.MongoOperations+.update*(..))"
+            + " || execution(* org.springframework.data.mongodb.core.MongoOperations+.upsert(..))"
+            + " || execution(* org.springframework.data.mongodb.core.MongoOperations+.remove(..))"
+            + " || execution(* org.springframework.data.mongodb.core.MongoOperations+.aggregate*(..))"
+            + " || execution(* org.springframework.data.mongodb.core.MongoOperations+.stream(..))"
+            + " || execution(* org.springframework.data.mongodb.core.MongoOperations+.execute*(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        return withPermit(joinPoint::proceed);
+    }
+
+    @Around("execution(* org.springframework.data.mongodb.core.MongoOperations+.bulkOps(..))")
+    public Object limitBulkOperations(ProceedingJoinPoint joinPoint) throws Throwable {
+        BulkOperations bulkOperations = (BulkOperations) joinPoint.proceed();
+        ProxyFactory proxyFactory = new ProxyFactory(bulkOperations);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            if ("execute".equals(invocation.getMethod().getName())) return withPermit(invocation::proceed);
+            Object result = invocation.proceed();
+            // the fluent methods return the target, chained calls have to stay on the proxy
+            return result == bulkOperations ? ((ProxyMethodInvocation) invocation).getProxy() : result;
+        });
+        return proxyFactory.getProxy();
+    }
+
+    private Object withPermit(MongoOperation operation) throws Throwable {
+        if (holdsPermit.get()) return operation.run();
+        if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+            log.warn("No Mongo permit within {} ms, {} callers waiting", acquireTimeoutMs, permits.getQueueLength());
+            throw new ApiException("The database is busy, please try again later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        holdsPermit.set(true);
+        try {
+            return operation.run();
+        } finally {
+            holdsPermit.remove();
+            permits.release();
+        }
+    }
+
+    private interface MongoOperation {
+        Object run() throws Throwable;
+    }
+}
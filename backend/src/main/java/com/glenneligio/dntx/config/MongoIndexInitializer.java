@@ -0,0 +1,124 @@
+package com.glenneligio.dntx.config;
+
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.model.Account;
+import com.glenneligio.dntx.model.ResetPasswordToken;
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.model.TransactionDailyRollup;
+import com.glenneligio.dntx.repository.TransactionQueryBuilder;
+import com.glenneligio.dntx.util.MongoQueryExplainer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Creates the indexes declared on the @Document classes once the application is ready, in a background thread,
+ * instead of through spring.data.mongodb.auto-index-creation during startup.
+ * Afterwards the query shapes used by the repositories are explained and a warning is logged for the ones
+ * that still end up in a collection scan.
+ */
+@Component
+@Slf4j
+public class MongoIndexInitializer {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private MongoQueryExplainer mongoQueryExplainer;
+
+    @Value("${dntx.mongodb.query-plan-check.enabled:true}")
+    private boolean queryPlanCheckEnabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIndexes() {
+        Thread thread = new Thread(() -> {
+            try {
+                ensureIndexes();
+                if (queryPlanCheckEnabled) checkQueryPlans();
+            } catch (Exception ex) {
+                log.error("Failed to initialize the Mongo indexes", ex);
+            }
+        }, "mongo-index-initializer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void ensureIndexes() {
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext = mongoTemplate.getConverter().getMappingContext();
+        IndexResolver indexResolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) continue;
+            IndexOperations indexOperations = mongoTemplate.indexOps(entity.getType());
+            indexResolver.resolveIndexFor(entity.getType()).forEach(index -> {
+                log.info("Ensuring index {} on collection {}", index.getIndexKeys(), entity.getCollection());
+                indexOperations.ensureIndex(index);
+            });
+        }
+    }
+
+    private void checkQueryPlans() {
+        String sampleId = new ObjectId().toHexString();
+        ZonedDateTime now = ZonedDateTime.now();
+        List<TransactionType> allTypes = List.of(TransactionType.values());
+
+        Map<String, Query> transactionQueries = new LinkedHashMap<>();
+        transactionQueries.put("own transactions page", TransactionQueryBuilder.ownedBy(sampleId)
+                .types(List.of(TransactionType.CC2GOLD))
+                .finishedAfter(now.minusYears(1))
+                .finishedBefore(now)
+                .toQuery()
+                .with(TransactionQueryBuilder.NEWEST_FIRST));
+        transactionQueries.put("own transactions page without filters", TransactionQueryBuilder.ownedBy(sampleId)
+                .toQuery()
+                .with(TransactionQueryBuilder.NEWEST_FIRST));
+        transactionQueries.put("own transactions cursor page", TransactionQueryBuilder.ownedBy(sampleId)
+                .types(List.of(TransactionType.CC2GOLD, TransactionType.GOLD2PHP))
+                .finishedAfter(now.minusYears(1))
+                .toQuery()
+                .addCriteria(new Criteria().orOperator(Criteria.where("dateFinished").lt(now), Criteria.where("dateFinished").is(now).and("id").lt(sampleId)))
+                .with(TransactionQueryBuilder.NEWEST_FIRST));
+        transactionQueries.put("own transactions export", TransactionQueryBuilder.ownedBy(sampleId)
+                .finishedBefore(now)
+                .toQuery());
+        transactionQueries.put("transactions by creator", Query.query(Criteria.where("creator.id").is(sampleId)));
+        transactionQueries.put("transaction by username and id", Query.query(Criteria.where("username").is("sample").and("id").is(sampleId)));
+        transactionQueries.forEach((name, query) -> checkQueryPlan(Transaction.class, name, query));
+
+        checkQueryPlan(TransactionDailyRollup.class, "daily rollups of creator", Query.query(Criteria.where("creatorId").is(sampleId)
+                .and("type").in(allTypes)
+                .and("transactionCount").gt(0)
+                .and("day").gte(now.minusYears(1)).lt(now)));
+        checkQueryPlan(Account.class, "account by username", Query.query(Criteria.where("username").is("sample")));
+        checkQueryPlan(Account.class, "account by email", Query.query(Criteria.where("email").is("sample@dntx.com")));
+        checkQueryPlan(ResetPasswordToken.class, "reset password token by token", Query.query(Criteria.where("token").is("sample")));
+        checkQueryPlan(ResetPasswordToken.class, "reset password tokens by account", Query.query(Criteria.where("accountId").is(sampleId)));
+    }
+
+    private void checkQueryPlan(Class<?> entityClass, String name, Query query) {
+        Document queryPlanner = mongoQueryExplainer.explain(entityClass, query).get("queryPlanner", Document.class);
+        if (MongoQueryExplainer.hasCollectionScan(queryPlanner.get("winningPlan"))) {
+            log.warn("Query '{}' on {} falls back to COLLSCAN, parsed query: {}", name, entityClass.getSimpleName(), queryPlanner.get("parsedQuery", Document.class).toJson());
+        } else {
+            log.info("Query '{}' on {} uses an index", name, entityClass.getSimpleName());
+        }
+    }
+}
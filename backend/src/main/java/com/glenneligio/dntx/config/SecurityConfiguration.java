@@ -1,6 +1,8 @@
 package com.glenneligio.dntx.config;
 
 import com.glenneligio.dntx.filters.JwtAuthFilter;
+import com.glenneligio.dntx.security.SecurityRules;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -9,18 +11,15 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AuthorizeHttpRequestsConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
-import java.time.Duration;
-import java.util.List;
-
 
 @Configuration
 @EnableWebSecurity
@@ -45,20 +44,27 @@ public class SecurityConfiguration {
         http.csrf().disable();
         http.addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
         http.sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
-        http.authorizeHttpRequests()
+        AuthorizeHttpRequestsConfigurer<HttpSecurity>.AuthorizationManagerRequestMatcherRegistry authorize = http.authorizeHttpRequests()
+                // the request was authorized on its REQUEST dispatch, the async dispatch of the NDJSON streams and error pages follow it
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 .requestMatchers(HttpMethod.POST,"/api/*/accounts/login", "/api/*/accounts/register").permitAll()
                 .requestMatchers(HttpMethod.PUT, "/api/*/accounts/password/**").permitAll()
-                .requestMatchers(HttpMethod.GET,"/actuator/**").permitAll() // For Spring Actuator
-                .requestMatchers(HttpMethod.GET, "/api/*/transactions/*").permitAll()
-                .requestMatchers(HttpMethod.GET, "/api/*/accounts/@self/**").hasAnyAuthority("ADMIN", "USER")
                 .requestMatchers(HttpMethod.POST, "/api/*/accounts/@self/transactions/**").hasAnyAuthority("USER", "ADMIN")
                 .requestMatchers(HttpMethod.PUT, "/api/*/accounts/@self", "/api/*/accounts/@self/transactions/*").hasAnyAuthority("ADMIN","USER")
                 .requestMatchers(HttpMethod.DELETE, "/api/*/accounts/@self/transactions/*").hasAnyAuthority("USER", "ADMIN")
-                .requestMatchers(HttpMethod.POST, "/api/*/transactions").hasAnyAuthority("USER", "ADMIN")
-                .requestMatchers(HttpMethod.PUT, "/api/v1/accounts/**").authenticated()
-                .requestMatchers(HttpMethod.GET, "/**").authenticated()
-                .anyRequest().hasAnyAuthority("ADMIN");
-//                .anyRequest().permitAll();
+                .requestMatchers(HttpMethod.POST, "/api/*/transactions", "/api/*/transactions/batch").hasAnyAuthority("USER", "ADMIN")
+                .requestMatchers(HttpMethod.PUT, "/api/v1/accounts/**").authenticated();
+        // the GET rules are shared with the reactive read API
+        for (SecurityRules.ReadRule rule : SecurityRules.READ_RULES) {
+            AuthorizeHttpRequestsConfigurer<HttpSecurity>.AuthorizedUrl url = authorize.requestMatchers(HttpMethod.GET, rule.pattern());
+            authorize = switch (rule.access()) {
+                case PERMIT_ALL -> url.permitAll();
+                case ACCOUNT -> url.hasAnyAuthority(SecurityRules.ACCOUNT_AUTHORITIES);
+                case AUTHENTICATED -> url.authenticated();
+            };
+        }
+        authorize.anyRequest().hasAnyAuthority(SecurityRules.ADMIN);
+//        authorize.anyRequest().permitAll();
         return http.build();
     }
 
@@ -74,14 +80,8 @@ public class SecurityConfiguration {
 
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
-        CorsConfiguration configuration = new CorsConfiguration();
-        configuration.setAllowedOrigins(List.of("*"));
-        configuration.setAllowedMethods(List.of("*"));
-        configuration.setAllowedHeaders(List.of("*"));
-        configuration.setExposedHeaders(List.of("*"));
-        configuration.setMaxAge(Duration.ofMinutes(10));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
-        source.registerCorsConfiguration("/**", configuration);
+        source.registerCorsConfiguration("/**", SecurityRules.corsConfiguration());
         return source;
     }
 }
@@ -0,0 +1,89 @@
+package com.glenneligio.dntx.config;
+
+import com.glenneligio.dntx.model.Account;
+import com.glenneligio.dntx.model.Transaction;
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Rewrites the transactions still holding a DBRef to the creator account into the embedded creator snapshot
+ * {_id, username}, in batches ordered by _id so the migration can be restarted at any point.
+ * The owner queries only match the snapshot, so the migration runs once every bean is created and before
+ * the web server starts accepting requests. Once every transaction is migrated, startup only runs the query that finds none left.
+ */
+@Component
+@Slf4j
+public class TransactionCreatorMigration implements SmartInitializingSingleton {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${dntx.mongodb.migration.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrate();
+    }
+
+    private void migrate() {
+        MongoCollection<Document> transactions = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Transaction.class));
+        MongoCollection<Document> accounts = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Account.class));
+        Bson dbRefCreator = Filters.exists("creator.$ref");
+
+        Object lastId = null;
+        long migrated = 0;
+        while (true) {
+            Bson filter = lastId == null ? dbRefCreator : Filters.and(dbRefCreator, Filters.gt("_id", lastId));
+            List<Document> batch = transactions.find(filter)
+                    .projection(Projections.include("creator"))
+                    .sort(Sorts.ascending("_id"))
+                    .limit(batchSize)
+                    .into(new ArrayList<>());
+            if (batch.isEmpty()) break;
+
+            // resolve the usernames of the whole batch with a single query
+            Set<Object> accountIds = new HashSet<>();
+            batch.forEach(tx -> accountIds.add(tx.get("creator", DBRef.class).getId()));
+            Map<Object, String> usernames = new HashMap<>();
+            accounts.find(Filters.in("_id", accountIds))
+                    .projection(Projections.include("username"))
+                    .forEach(account -> usernames.put(account.get("_id"), account.getString("username")));
+
+            List<WriteModel<Document>> updates = new ArrayList<>(batch.size());
+            for (Document tx : batch) {
+                Object accountId = tx.get("creator", DBRef.class).getId();
+                String username = usernames.get(accountId);
+                if (username == null) log.warn("Transaction {} references missing account {}", tx.get("_id"), accountId);
+                Document creator = new Document("_id", accountId).append("username", username);
+                // only rewrite documents that still hold the DBRef, in case the transaction was updated meanwhile
+                updates.add(new UpdateOneModel<>(Filters.and(Filters.eq("_id", tx.get("_id")), dbRefCreator), Updates.set("creator", creator)));
+            }
+            transactions.bulkWrite(updates);
+            migrated += batch.size();
+            lastId = batch.get(batch.size() - 1).get("_id");
+        }
+        if (migrated > 0) log.info("Migrated the creator of {} transactions to the embedded snapshot", migrated);
+    }
+}
@@ -0,0 +1,41 @@
+package com.glenneligio.dntx.config;
+
+import com.glenneligio.dntx.model.Transaction;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/*
+ * Starts the @Version of the transactions written before the field existed at 0. Without a version,
+ * save() treats a loaded transaction as new and tries to insert it again.
+ */
+@Component
+@Slf4j
+public class TransactionVersionMigration {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateTransactionVersions() {
+        Thread thread = new Thread(() -> {
+            try {
+                UpdateResult result = mongoTemplate.updateMulti(Query.query(Criteria.where("version").exists(false)),
+                        new Update().set("version", 0L),
+                        Transaction.class);
+                if (result.getModifiedCount() > 0) log.info("Initialized the version of {} transactions", result.getModifiedCount());
+            } catch (Exception ex) {
+                log.error("Failed to initialize the transaction versions", ex);
+            }
+        }, "transaction-version-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
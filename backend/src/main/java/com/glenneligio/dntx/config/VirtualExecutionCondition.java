@@ -0,0 +1,17 @@
+package com.glenneligio.dntx.config;
+
+import com.glenneligio.dntx.enums.ExecutionMode;
+import com.glenneligio.dntx.util.VirtualThreads;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+// Matches when the requests actually run on virtual threads, the same fallback as the executionMode bean
+public class VirtualExecutionCondition implements Condition {
+
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        String requestedMode = context.getEnvironment().getProperty("dntx.execution.mode", "platform");
+        return ExecutionMode.VIRTUAL.name().equalsIgnoreCase(requestedMode.trim()) && VirtualThreads.isAvailable();
+    }
+}
@@ -0,0 +1,22 @@
+package com.glenneligio.dntx.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    @Qualifier("streamingResponseExecutor")
+    private ThreadPoolTaskExecutor streamingResponseExecutor;
+
+    // Boot's applicationTaskExecutor backs off next to our executors, MVC would fall back to a thread per async request
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingResponseExecutor);
+    }
+}
@@ -4,42 +4,57 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.glenneligio.dntx.dtos.*;
+import com.glenneligio.dntx.enums.TransactionStatsBucket;
 import com.glenneligio.dntx.enums.TransactionType;
 import com.glenneligio.dntx.exception.ApiException;
 import com.glenneligio.dntx.model.Account;
+import com.glenneligio.dntx.model.ExportJob;
 import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.model.TransactionCreator;
 import com.glenneligio.dntx.service.AccountService;
+import com.glenneligio.dntx.service.EmailOutboxService;
 import com.glenneligio.dntx.service.EmailService;
+import com.glenneligio.dntx.service.ExportJobService;
+import com.glenneligio.dntx.service.ITransactionExporter;
 import com.glenneligio.dntx.service.ResetPasswordTokenService;
+import com.glenneligio.dntx.service.TransactionMetrics;
 import com.glenneligio.dntx.service.TransactionService;
+import com.glenneligio.dntx.service.TransactionStatsService;
 import com.glenneligio.dntx.util.JwtUtil;
 import com.glenneligio.dntx.util.Utils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
+import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1/accounts")
@@ -53,17 +68,50 @@ public class AccountController {
     @Autowired
     private TransactionService transactionService;
     @Autowired
+    private TransactionStatsService transactionStatsService;
+    @Autowired
+    private TransactionMetrics transactionMetrics;
+    @Autowired
+    private ExportJobService exportJobService;
+    @Autowired
+    private List<ITransactionExporter> transactionExporters;
+    @Autowired
     private ResetPasswordTokenService resetPasswordTokenService;
     @Autowired
     private EmailService emailService;
     @Autowired
+    private EmailOutboxService emailOutboxService;
+    @Autowired
     private JwtUtil jwtUtil;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${dntx.admin.max-page-size:1000}")
+    private int maxPageSize;
 
     @GetMapping
     public ResponseEntity<List<Account>> getAllAccounts() {
         return ResponseEntity.ok(accountService.getAllAccounts());
     }
 
+    @GetMapping(params = "pageSize")
+    public ResponseEntity<AccountCursorPageDto> getAccountsByCursor(@RequestParam(required = false) String cursor,
+                                                                    @RequestParam int pageSize) {
+        if (pageSize < 1 || pageSize > maxPageSize) throw new ApiException("Page size must be between 1 and " + maxPageSize, HttpStatus.BAD_REQUEST);
+        return ResponseEntity.ok(accountService.getAccountCursorPage(cursor, pageSize));
+    }
+
+    // Newline delimited JSON written as the documents come off the Mongo cursor
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAccounts() {
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<Account> accounts = accountService.streamAllAccounts()) {
+                Utils.writeNdjson(objectMapper, accounts, outputStream);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{username}")
     public ResponseEntity<Account> getAccountByUsername(@PathVariable String username) {
         final String METHOD_NAME = "getAccountByUsername";
@@ -84,7 +132,7 @@ public class AccountController {
     @PutMapping("/{username}")
     public ResponseEntity<Account> updateAccount(@PathVariable String username,
                                                  @RequestBody @Valid UpdateAccountDto dto) {
-        log.info("Updating account with username {} and info {}", username, dto);
+        log.info("Updating account with username {}", username);
         return ResponseEntity.ok(accountService.updateAccount(username, dto.toAccount()));
     }
 
@@ -133,8 +181,8 @@ public class AccountController {
             String resetPasswordLink = MessageFormat.format("{0}/reset?token={1}", hostname, token);
             String body = emailService.createResetPasswordBody(account.getFullName(), resetPasswordLink, senderBrowserAndDevice);
 
-            // send email using the email provided
-            emailService.sendEmail(email, subject, body);
+            // queue the email for the outbox dispatcher instead of waiting on the SMTP server
+            emailOutboxService.enqueue(email, subject, body);
         }
 
         Map<String, Object> respBody = new HashMap<>();
@@ -154,7 +202,7 @@ public class AccountController {
 
     @GetMapping("/@self")
     public ResponseEntity<Account> getOwnAccount(Authentication authentication) {
-        log.info("Fetching own account details with principal {}", authentication.getPrincipal());
+        log.info("Fetching own account details of {}", authentication.getName());
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         String username = userDetails.getUsername();
         return ResponseEntity.ok(accountService.getAccountByUsername(username));
@@ -163,7 +211,7 @@ public class AccountController {
     @PutMapping("/@self")
     public ResponseEntity<Account> updateOwnAccount(Authentication authentication,
                                                     @RequestBody @Valid UpdateAccountDto dto) {
-        log.info("Updating own account using principal {}", authentication.getPrincipal());
+        log.info("Updating own account of {}", authentication.getName());
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         String username = userDetails.getUsername();
         Account account = dto.toAccount();
@@ -173,33 +221,26 @@ public class AccountController {
     }
 
     @GetMapping("/@self/transactions")
-    public ResponseEntity<TransactionPageDto> getAccountTransactions(@RequestParam(defaultValue = "1") int pageNumber,
-                                                                     @RequestParam(defaultValue = "1") int pageSize,
-                                                                     @RequestParam(defaultValue = "") String txType,
-                                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime beforeDate,
-                                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime afterDate,
-                                                                     Authentication authentication) {
-        log.info("Fetching own transactions with principal {}", authentication);
+    public ResponseEntity<TransactionPageDto<?>> getAccountTransactions(@RequestParam(defaultValue = "1") int pageNumber,
+                                                                        @RequestParam(defaultValue = "1") int pageSize,
+                                                                        @RequestParam(defaultValue = "") String txType,
+                                                                        @RequestParam(defaultValue = "full") String view,
+                                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime beforeDate,
+                                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime afterDate,
+                                                                        Authentication authentication) {
+        log.info("Fetching own transactions of {}", authentication.getName());
         // Prepare txType param
-        List<TransactionType> types = new ArrayList<>();
-        if(!txType.isBlank()) {
-            List<TransactionType> tempList = new ArrayList<>();
-            Arrays.stream(txType.split(",")).forEach(t -> {
-                tempList.add(TransactionType.getTransactionType(t));
-            });
-            types.addAll(tempList);
-        } else {
-            types.addAll(List.of(TransactionType.CC2GOLD, TransactionType.GOLD2PHP, TransactionType.ITEM2GOLD));
-        }
-
-        // Prepare after and before Date param
-        ZonedDateTime afterDatePlaceHolder = afterDate != null ? afterDate : ZonedDateTime.now().withYear(-9999);
-        ZonedDateTime beforeDatePlaceHolder = beforeDate != null ? beforeDate : ZonedDateTime.now().withYear(9999);
+        List<TransactionType> types = getTransactionTypes(txType);
 
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         String username = userDetails.getUsername();
-        Page<Transaction> transactionPage = transactionService.getTransactionPageByCreatorUsernameTypeAndDateFinished(username, types, afterDatePlaceHolder, beforeDatePlaceHolder, pageNumber, pageSize);
-        TransactionPageDto transactionPageDto = new TransactionPageDto(transactionPage.getContent(),
+        // the whole documents are returned by default, view=summary opts into leaving out the transaction items and file attachments
+        Page<?> transactionPage = switch (view) {
+            case "summary" -> transactionService.getTransactionSummaryPageByCreatorUsernameTypeAndDateFinished(username, types, afterDate, beforeDate, pageNumber, pageSize);
+            case "full" -> transactionService.getTransactionPageByCreatorUsernameTypeAndDateFinished(username, types, afterDate, beforeDate, pageNumber, pageSize);
+            default -> throw new ApiException("View can only be summary or full", HttpStatus.BAD_REQUEST);
+        };
+        TransactionPageDto<?> transactionPageDto = new TransactionPageDto<>(transactionPage.getContent(),
                 transactionPage.getTotalPages(),
                 transactionPage.getTotalElements(),
                 transactionPage.getNumber(),
@@ -207,39 +248,106 @@ public class AccountController {
         return ResponseEntity.ok(transactionPageDto);
     }
 
+    @GetMapping("/@self/transactions/cursor")
+    public ResponseEntity<TransactionCursorPageDto> getAccountTransactionsByCursor(@RequestParam(required = false) String cursor,
+                                                                                   @RequestParam(defaultValue = "10") int pageSize,
+                                                                                   @RequestParam(defaultValue = "false") boolean includeTotal,
+                                                                                   @RequestParam(defaultValue = "") String txType,
+                                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime beforeDate,
+                                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime afterDate,
+                                                                                   Authentication authentication) {
+        log.info("Fetching own transactions by cursor of {}", authentication.getName());
+        if (pageSize < 1) throw new ApiException("Page size must be at least 1", HttpStatus.BAD_REQUEST);
+        List<TransactionType> types = getTransactionTypes(txType);
+
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        String username = userDetails.getUsername();
+        return ResponseEntity.ok(transactionService.getTransactionCursorPageByCreatorUsernameTypeAndDateFinished(username,
+                types, afterDate, beforeDate, cursor, pageSize, includeTotal));
+    }
+
+    @GetMapping("/@self/transactions/summary")
+    public ResponseEntity<TransactionStatsDto> getAccountTransactionsSummary(@RequestParam(defaultValue = "day") String bucket,
+                                                                             @RequestParam(defaultValue = "UTC") String timezone,
+                                                                             @RequestParam(defaultValue = "") String txType,
+                                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime beforeDate,
+                                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime afterDate,
+                                                                             Authentication authentication) {
+        log.info("Fetching own transactions summary of {}", authentication.getName());
+        TransactionStatsBucket statsBucket = TransactionStatsBucket.getTransactionStatsBucket(bucket);
+        if (statsBucket == null) throw new ApiException("Bucket can only be day, week, or month", HttpStatus.BAD_REQUEST);
+        List<TransactionType> types = getTransactionTypes(txType);
+
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        String username = userDetails.getUsername();
+        return ResponseEntity.ok(transactionStatsService.getTransactionStats(username, types, statsBucket, timezone, afterDate, beforeDate));
+    }
+
     @GetMapping("/@self/transactions/download")
     public void downloadAccountTransactions(HttpServletResponse response,
+                                            @RequestParam(defaultValue = "xlsx") String format,
                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime beforeDate,
                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime afterDate,
                                             Authentication authentication) throws IOException {
         final String methodName = "downloadAccountTransactions";
-        log.info("Preparing Transactions list for Download");
-        log.info("Entering method {}, with inputs: beforeDate {}, afterDate {}", methodName, beforeDate, afterDate);
+        log.info("Entering method {}, with inputs: format {}, beforeDate {}, afterDate {}", methodName, format, beforeDate, afterDate);
+        ITransactionExporter exporter = getTransactionExporter(format);
 
         // get username from the Authentication from SecurityContext
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         String username = userDetails.getUsername();
 
-        // if fromDate and toDate is present, filter the transactions again
-        ZonedDateTime afterDatePlaceHolder = afterDate != null ? afterDate : ZonedDateTime.now().withYear(-9999);
-        ZonedDateTime beforeDatePlaceHolder = beforeDate != null ? beforeDate : ZonedDateTime.now().withYear(9999);
-        List<Transaction> transactions = transactionService.getTransactionByCreatorUsernameAndDateBetween(username, afterDatePlaceHolder, beforeDatePlaceHolder);
-        log.info("Transaction count: {}", transactions.size());
-
         // setting response headers for download
-        log.info("Setting response headers for download excel");
+        log.debug("Setting response headers for download {}", exporter.getFormat());
         DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("MMM d, YYYY");
         String currentDateTime = LocalDateTime.now().atZone(ZoneId.of("Asia/Manila")).format(dateTimeFormatter);
-        String filename = "Transaction " + currentDateTime + ".xlsx";
-        response.setContentType("application/octet-stream");
+        String filename = "Transaction " + currentDateTime + "." + exporter.getFileExtension();
+        response.setContentType(exporter.getContentType());
         response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + "\"");
 
-        // fetching InputStream to be added in Response
-        log.info("Creating ByteArrayInputStream to be copied in Response OutputStream");
-        ByteArrayInputStream stream = transactionService.listToExcel(transactions);
-        // copying the InputStream to response outputStream
-        log.info("Copying the InputStream to Response OutputStream");
-        IOUtils.copy(stream, response.getOutputStream());
+        // reading the transactions from Mongo cursors and writing the file directly in the Response outputStream
+        log.debug("Streaming the {} file into Response OutputStream", exporter.getFormat());
+        AtomicLong exportedTransactions = new AtomicLong();
+        exporter.export(txTypes -> transactionService.streamTransactionByCreatorUsernameTypeAndDateBetween(username, txTypes, afterDate, beforeDate)
+                        .peek(transaction -> exportedTransactions.incrementAndGet()),
+                response.getOutputStream());
+        transactionMetrics.recordExport(exporter.getFormat(), exportedTransactions.get());
+    }
+
+    @PostMapping("/@self/transactions/export-jobs")
+    public ResponseEntity<ExportJobDto> startAccountTransactionsExportJob(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime beforeDate,
+                                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime afterDate,
+                                                                          Authentication authentication) {
+        log.info("Starting export job with inputs: beforeDate {}, afterDate {}", beforeDate, afterDate);
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        String username = userDetails.getUsername();
+        ExportJob job = exportJobService.startExportJob(username, afterDate, beforeDate);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{id}")
+                        .buildAndExpand(job.getId())
+                        .toUri())
+                .body(new ExportJobDto(job));
+    }
+
+    @GetMapping("/@self/transactions/export-jobs/{id}")
+    public ResponseEntity<ExportJobDto> getAccountTransactionsExportJob(@PathVariable String id,
+                                                                        Authentication authentication) {
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        return ResponseEntity.ok(new ExportJobDto(exportJobService.getExportJob(userDetails.getUsername(), id)));
+    }
+
+    // Returning a Resource lets Spring answer Range requests with 206 partial content, so downloads can be resumed
+    @GetMapping("/@self/transactions/export-jobs/{id}/file")
+    public ResponseEntity<Resource> downloadAccountTransactionsExportJobFile(@PathVariable String id,
+                                                                             Authentication authentication) {
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        Path file = exportJobService.getExportFile(userDetails.getUsername(), id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(EXCEL_CONTENT_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"Transactions " + id + ".xlsx\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(new FileSystemResource(file));
     }
 
     @PostMapping("/@self/transactions/upload")
@@ -255,32 +363,31 @@ public class AccountController {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         String username = userDetails.getUsername();
 
-        List<Transaction> transactions = transactionService.excelToList(file);
-        log.info("Got the transactions from excel, size: {}", transactions.size());
-
-        // check if all transactions are owned by the creator
-        boolean allTxOwned = transactions.stream().allMatch(tx -> tx.getCreator().getUsername().equals(username));
-        if (!allTxOwned)
-            throw new ApiException("You can upload transactions from other creators", HttpStatus.FORBIDDEN);
-
-        int itemsAffected = transactionService.addOrUpdate(transactions, overwrite);
+        // the excel file is read and persisted in chunks of transactions
+        BulkImportResultDto result = transactionService.importExcel(file, username, overwrite);
+        int itemsAffected = result.getInserted() + result.getUpdated();
         log.info("Successfully updated {} transactions database using the excel file", itemsAffected);
 
         ObjectMapper mapper = new ObjectMapper();
         ObjectNode objectNode = mapper.createObjectNode();
         objectNode.put("Transactions Affected", itemsAffected);
+        objectNode.put("Inserted", result.getInserted());
+        objectNode.put("Updated", result.getUpdated());
+        objectNode.put("Skipped", result.getSkipped());
+        objectNode.put("Batches", result.getBatches());
+        objectNode.set("Failures", mapper.valueToTree(result.getFailures()));
         return ResponseEntity.ok(objectNode);
     }
 
     @PostMapping("/@self/transactions")
     public ResponseEntity<Transaction> createAccountTransaction(@RequestBody @Valid CreateUpdateTransactionDto dto,
                                                                 Authentication authentication) {
-        log.info("Creating own transaction with principal {}, and transaction {}", authentication.getPrincipal(), dto);
+        log.info("Creating own transaction of {}", authentication.getName());
+        if (log.isDebugEnabled()) log.debug("Transaction to create {}", dto);
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         String username = userDetails.getUsername();
         Transaction transaction = dto.toTransaction();
-        transaction.setCreator(new Account());
-        transaction.getCreator().setUsername(username);
+        transaction.setCreator(new TransactionCreator(null, username));
         Transaction transactionCreated = transactionService.createTransaction(transaction);
         return ResponseEntity.created(ServletUriComponentsBuilder.fromCurrentRequest()
                         .path("/{id}")
@@ -289,31 +396,54 @@ public class AccountController {
                 .body(transactionCreated);
     }
 
+    @PostMapping("/@self/transactions/batch")
+    public ResponseEntity<BatchCreateResultDto> createAccountTransactions(@RequestBody List<CreateUpdateTransactionDto> dtos,
+                                                                          Authentication authentication) {
+        log.info("Creating a batch of {} own transactions of {}", dtos.size(), authentication.getName());
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        BatchCreateResultDto result = transactionService.createTransactions(dtos, userDetails.getUsername());
+        return ResponseEntity.status(result.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(result);
+    }
+
     @PutMapping("/@self/transactions/{id}")
     public ResponseEntity<Transaction> updateOwnTransaction(@PathVariable String id,
                                                             @RequestBody @Valid CreateUpdateTransactionDto dto,
                                                             Authentication authentication) {
-        log.info("Updating own transaction with id {}, and transaction info {}", id, dto);
-        checkIfOwnTransaction(authentication, id, "You can only update your own transactions");
-        Transaction transactionUpdated = transactionService.updateTransaction(id, dto.toTransaction());
+        log.info("Updating own transaction with id {}", id);
+        if (log.isDebugEnabled()) log.debug("Transaction info {}", dto);
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        Transaction transactionUpdated = transactionService.updateOwnTransaction(id, userDetails.getUsername(), dto.toTransaction());
         return ResponseEntity.ok(transactionUpdated);
     }
 
     @DeleteMapping("/@self/transactions/{id}")
     public ResponseEntity<Transaction> deleteOwnTransaction(@PathVariable String id,
+                                                            @RequestParam(required = false) Long version,
                                                             Authentication authentication) {
         log.info("Delete own transaction with id {}", id);
-        checkIfOwnTransaction(authentication, id, "You can only delete your own transactions");
-        Transaction deletedTransaction = transactionService.deleteTransaction(id);
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        Transaction deletedTransaction = transactionService.deleteOwnTransaction(id, userDetails.getUsername(), version);
         return ResponseEntity.ok(deletedTransaction);
     }
 
-    private void checkIfOwnTransaction(Authentication authentication, String id, String message) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        Transaction transactionToBeUpdated = transactionService.getTransactionById(id);
-        if (!transactionToBeUpdated.getCreator().getUsername().equals(userDetails.getUsername())) {
-            throw new ApiException(message, HttpStatus.UNAUTHORIZED);
+    private ITransactionExporter getTransactionExporter(String format) {
+        return transactionExporters.stream()
+                .filter(exporter -> exporter.getFormat().equalsIgnoreCase(format))
+                .findFirst()
+                .orElseThrow(() -> new ApiException("Format can only be xlsx, csv, or ndjson", HttpStatus.BAD_REQUEST));
+    }
+
+    // An empty list means no type filter, the query then leaves the type predicate out
+    private List<TransactionType> getTransactionTypes(String txType) {
+        List<TransactionType> types = new ArrayList<>();
+        if(!txType.isBlank()) {
+            Arrays.stream(txType.split(",")).forEach(t -> {
+                TransactionType type = TransactionType.getTransactionType(t.trim());
+                if (type == null) throw new ApiException("Invalid transaction type " + t, HttpStatus.BAD_REQUEST);
+                types.add(type);
+            });
         }
+        return types;
     }
 
 
@@ -3,20 +3,29 @@ package com.glenneligio.dntx.controller;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.glenneligio.dntx.dtos.BatchCreateResultDto;
 import com.glenneligio.dntx.dtos.CreateUpdateTransactionDto;
+import com.glenneligio.dntx.dtos.TransactionCursorPageDto;
+import com.glenneligio.dntx.exception.ApiException;
 import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.service.TransactionRollupService;
 import com.glenneligio.dntx.service.TransactionService;
 import com.glenneligio.dntx.util.Utils;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1/transactions")
@@ -25,6 +34,13 @@ public class TransactionController {
 
     @Autowired
     private TransactionService service;
+    @Autowired
+    private TransactionRollupService rollupService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${dntx.admin.max-page-size:1000}")
+    private int maxPageSize;
 
     @GetMapping
     public ResponseEntity<List<Transaction>> getTransactions() {
@@ -32,6 +48,24 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping(params = "pageSize")
+    public ResponseEntity<TransactionCursorPageDto> getTransactionsByCursor(@RequestParam(required = false) String cursor,
+                                                                            @RequestParam int pageSize) {
+        if (pageSize < 1 || pageSize > maxPageSize) throw new ApiException("Page size must be between 1 and " + maxPageSize, HttpStatus.BAD_REQUEST);
+        return ResponseEntity.ok(service.getTransactionCursorPage(cursor, pageSize));
+    }
+
+    // Newline delimited JSON written as the documents come off the Mongo cursor
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTransactions() {
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<Transaction> transactions = service.streamAllTransactions()) {
+                Utils.writeNdjson(objectMapper, transactions, outputStream);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Transaction> getTransactionById(@PathVariable String id) {
         Transaction transaction = service.getTransactionById(id);
@@ -51,6 +85,12 @@ public class TransactionController {
                 .body(transactionCreated);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchCreateResultDto> createTransactions(@RequestBody List<CreateUpdateTransactionDto> transactionDtos) {
+        BatchCreateResultDto result = service.createTransactions(transactionDtos, null);
+        return ResponseEntity.status(result.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(result);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Transaction> updateTransaction(@PathVariable String id,
                                                          @RequestBody @Valid CreateUpdateTransactionDto dto) {
@@ -66,4 +106,13 @@ public class TransactionController {
         ObjectNode response = Utils.createObjectNodeFromMap(map);
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<?> rebuildTransactionRollups() throws JsonProcessingException {
+        long rollups = rollupService.rebuild();
+        Map<String, Object> map = new HashMap<>();
+        map.put("rollups", rollups);
+        ObjectNode response = Utils.createObjectNodeFromMap(map);
+        return ResponseEntity.ok(response);
+    }
 }
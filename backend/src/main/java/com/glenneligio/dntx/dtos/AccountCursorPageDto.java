@@ -0,0 +1,18 @@
+package com.glenneligio.dntx.dtos;
+
+import com.glenneligio.dntx.model.Account;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountCursorPageDto {
+    private List<Account> accounts;
+    // null when there are no more accounts
+    private String nextCursor;
+    private int pageSize;
+}
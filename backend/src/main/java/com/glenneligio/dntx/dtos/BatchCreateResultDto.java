@@ -0,0 +1,17 @@
+package com.glenneligio.dntx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCreateResultDto {
+    private int created;
+    private int failed;
+    private List<BatchItemResultDto> results = new ArrayList<>();
+}
@@ -0,0 +1,18 @@
+package com.glenneligio.dntx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResultDto {
+    private int index;
+    private String id;
+    private int status;
+    private List<String> errors = new ArrayList<>();
+}
@@ -0,0 +1,27 @@
+package com.glenneligio.dntx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResultDto {
+    private int batches;
+    private int inserted;
+    private int updated;
+    private int skipped;
+    private List<String> failures = new ArrayList<>();
+
+    public void merge(BulkImportResultDto other) {
+        this.batches += other.getBatches();
+        this.inserted += other.getInserted();
+        this.updated += other.getUpdated();
+        this.skipped += other.getSkipped();
+        this.failures.addAll(other.getFailures());
+    }
+}
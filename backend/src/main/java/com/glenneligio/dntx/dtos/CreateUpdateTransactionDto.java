@@ -21,7 +21,7 @@ public class CreateUpdateTransactionDto {
     @NotBlank(message = "Username can't be blank")
     private String username;
     @NotNull(message = "Creator must be present, at least the username")
-    private Account creator;
+    private TransactionCreator creator;
     private List<FileAttachment> fileAttachments;
 
     private ZonedDateTime dateFinished;
@@ -32,6 +32,9 @@ public class CreateUpdateTransactionDto {
 
     private Boolean reversed;
 
+    // version of the transaction the update or delete is based on, optional
+    private Long version;
+
     @Valid
     @NotEmpty
     private List<TransactionItemDto> transactionItems;
@@ -44,6 +47,7 @@ public class CreateUpdateTransactionDto {
         transaction.setType(TransactionType.getTransactionType(type));
         transaction.setReversed(reversed);
         transaction.setDateFinished(dateFinished);
+        transaction.setVersion(version);
 
         transaction.setTransactionItems(transactionItems.stream()
                 .map(t -> t.toTransactionItem(transaction.getType()))
@@ -0,0 +1,40 @@
+package com.glenneligio.dntx.dtos;
+
+import com.glenneligio.dntx.enums.ExportJobStatus;
+import com.glenneligio.dntx.model.ExportJob;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportJobDto {
+    private String id;
+    private ExportJobStatus status;
+    private int percentComplete;
+    private long processedTransactions;
+    private long totalTransactions;
+    private ZonedDateTime afterDate;
+    private ZonedDateTime beforeDate;
+    private ZonedDateTime createdAt;
+    private ZonedDateTime completedAt;
+    private ZonedDateTime expiresAt;
+    private String error;
+
+    public ExportJobDto(ExportJob job) {
+        this.id = job.getId();
+        this.status = job.getStatus();
+        this.percentComplete = job.getPercentComplete();
+        this.processedTransactions = job.getProcessedTransactions().get();
+        this.totalTransactions = job.getTotalTransactions();
+        this.afterDate = job.getAfterDate();
+        this.beforeDate = job.getBeforeDate();
+        this.createdAt = job.getCreatedAt();
+        this.completedAt = job.getCompletedAt();
+        this.expiresAt = job.getExpiresAt();
+        this.error = job.getError();
+    }
+}
@@ -0,0 +1,20 @@
+package com.glenneligio.dntx.dtos;
+
+import com.glenneligio.dntx.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionCursorPageDto {
+    private List<Transaction> transactions;
+    // null when there are no more transactions
+    private String nextCursor;
+    private int pageSize;
+    // only counted when requested
+    private Long totalTransactions;
+}
@@ -1,17 +1,17 @@
 package com.glenneligio.dntx.dtos;
 
-import com.glenneligio.dntx.model.Transaction;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
 
+// T is either the full Transaction or its TransactionSummaryDto
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class TransactionPageDto {
-    private List<Transaction> transactions;
+public class TransactionPageDto<T> {
+    private List<T> transactions;
     private int totalPages;
     private long totalTransactions;
     private int pageNumber;
@@ -0,0 +1,26 @@
+package com.glenneligio.dntx.dtos;
+
+import com.glenneligio.dntx.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionStatsBucketDto {
+    private TransactionType type;
+    private ZonedDateTime bucketStart;
+    private long transactionCount;
+    private long itemCount;
+    private double goldPaid;
+    private BigDecimal ccAmount;
+    private double phpPaid;
+    // sum of itemQuantity * itemPriceInGold
+    private double itemGold;
+    private Double averageGoldPerCC;
+    private Double averageGoldPerPhp;
+}
@@ -0,0 +1,19 @@
+package com.glenneligio.dntx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionStatsDto {
+    private String bucket;
+    private String timezone;
+    private ZonedDateTime afterDate;
+    private ZonedDateTime beforeDate;
+    private List<TransactionStatsBucketDto> buckets;
+}
@@ -0,0 +1,29 @@
+package com.glenneligio.dntx.dtos;
+
+import com.glenneligio.dntx.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+// Transaction card shown in the lists, the items and file attachments are only returned by GET /transactions/{id}
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionSummaryDto {
+    private String id;
+    private String username;
+    private TransactionType type;
+    private ZonedDateTime dateFinished;
+    private boolean reversed;
+    private long itemCount;
+    private double goldPaid;
+    private BigDecimal ccAmount;
+    private double phpPaid;
+    // sum of itemQuantity * itemPriceInGold
+    private double itemGold;
+    private Double averageGoldPerCC;
+    private Double averageGoldPerPhp;
+}
@@ -22,6 +22,8 @@ import java.util.regex.Pattern;
 @Slf4j
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    private static final Pattern LOGIN_REGISTER_PATTERN = Pattern.compile("/api/v.*/accounts/(login|register)");
+
     private final JwtUtil jwtUtil;
     private final UserDetailsService service;
 
@@ -34,11 +36,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         final String requestUri = request.getRequestURI();
         final String requestMethod = request.getMethod();
-        log.info("{} {}", requestMethod, requestUri);
-        Pattern patPackageDescription = Pattern.compile("/api/v.*/accounts/(login|register)");
-        Matcher matPackageDescription = patPackageDescription.matcher(requestUri);
+        log.debug("{} {}", requestMethod, requestUri);
+        Matcher matPackageDescription = LOGIN_REGISTER_PATTERN.matcher(requestUri);
         if(matPackageDescription.find()) {
-            log.info("Login and register request, will not be processed");
+            log.debug("Login and register request, will not be processed");
             filterChain.doFilter(request, response);
             return;
         }
@@ -47,19 +48,20 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         String jwt = null;
         String username = null;
+        JwtUtil.TokenClaims claims = null;
 
         if(authorization != null && authorization.startsWith("Bearer ")) {
             jwt = authorization.substring(7);
-            username = jwtUtil.extractUsername(jwt);
+            // parse and verify the token once, the claims are reused for the validation below
+            claims = jwtUtil.parseClaims(jwt);
+            username = claims.subject();
         }
-        log.info("Jwt {} with username {} is read", jwt, username);
 
         if(username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            log.info("Looks for the account based on username found in jwt");
             UserDetails userDetails = service.loadUserByUsername(username);
-            log.info("UserDetails created: {}", userDetails.toString());
-            if(jwtUtil.validateToken(jwt, userDetails)) {
-                log.info("Valid jwt {}, adding userDetails created in the Security Context", jwt);
+            if(jwtUtil.validateClaims(claims, userDetails)) {
+                // the token itself is never logged
+                log.debug("Valid jwt of {}, adding the user details in the Security Context", username);
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(userDetails, userDetails.getPassword(), userDetails.getAuthorities());
                 usernamePasswordAuthenticationToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request));
@@ -6,6 +6,7 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.coyote.Response;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -67,6 +68,15 @@ public class DnTxExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(response, apiException.getStatus());
     }
 
+    // Optimistic locking failure of a versioned document, the client has to reload it before retrying
+    @ExceptionHandler(value = OptimisticLockingFailureException.class)
+    public ResponseEntity<ExceptionResponse> handleOptimisticLockingFailureException (OptimisticLockingFailureException ex, WebRequest request){
+        ExceptionResponse response = new ExceptionResponse(List.of("The resource was modified by another request, please reload it and try again"),
+                LocalDateTime.now(),
+                request.getDescription(false));
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
     // Handle validation errors, mostly in RequestBody
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, HttpHeaders headers, HttpStatusCode status, WebRequest request) {
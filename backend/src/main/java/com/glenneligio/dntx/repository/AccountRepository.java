@@ -4,6 +4,8 @@ import com.glenneligio.dntx.model.Account;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepository extends MongoRepository<Account, String> {
@@ -11,4 +13,6 @@ public interface AccountRepository extends MongoRepository<Account, String> {
     Optional<Account> findByUsername(String username);
 
     Optional<Account> findByEmail(String email);
+
+    List<Account> findByUsernameIn(Collection<String> usernames);
 }
@@ -1,11 +1,9 @@
 package com.glenneligio.dntx.repository;
 
-import com.glenneligio.dntx.enums.TransactionType;
 import com.glenneligio.dntx.model.Transaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.mongodb.repository.Query;
 
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
@@ -22,15 +20,4 @@ public interface TransactionRepository extends MongoRepository<Transaction, Stri
 
     List<Transaction> findByCreatorIdAndDateFinishedBetween(String id, ZonedDateTime afterDate, ZonedDateTime beforeDate);
 
-    @Query(value = "{'$and': [" +
-            "{'creator.id': ?0}," +
-            "{'type': {'$in': ?1}}," +
-            "{'dateFinished': {'$gte': ?2, '$lte': ?3}}" +
-            "]}")
-    Page<Transaction> findOwnTransactionsUsingDateFinishedAndTxType(String id,
-                                                                    List<TransactionType> txTypes,
-                                                                    ZonedDateTime afterDate,
-                                                                    ZonedDateTime beforeDate,
-                                                                    Pageable pageable);
-
 }
@@ -1,12 +1,23 @@
 package com.glenneligio.dntx.service;
 
+import com.glenneligio.dntx.dtos.AccountCursorPageDto;
 import com.glenneligio.dntx.dtos.DnTxUserDetails;
 import com.glenneligio.dntx.enums.AccountType;
 import com.glenneligio.dntx.exception.ApiException;
 import com.glenneligio.dntx.model.Account;
 import com.glenneligio.dntx.repository.AccountRepository;
+import com.glenneligio.dntx.util.Utils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,12 +25,20 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
+@Timed(value = "dntx.service", histogram = true)
 public class AccountService implements UserDetailsService {
 
     private static final String CLASS_NAME = AccountService.class.getName();
@@ -28,11 +47,56 @@ public class AccountService implements UserDetailsService {
     private AccountRepository accountRepository;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Number of accounts fetched per round trip when the accounts are streamed
+    @Value("${dntx.export.cursor-batch-size:500}")
+    private int streamCursorBatchSize;
+
+    @Value("${dntx.security.user-details-cache.ttl-seconds:300}")
+    private long userDetailsCacheTtlSeconds;
+    @Value("${dntx.security.user-details-cache.max-size:10000}")
+    private long userDetailsCacheMaxSize;
+
+    // UserDetails loaded for every authenticated request, keyed by username
+    private Cache<String, UserDetails> userDetailsCache;
+
+    @PostConstruct
+    public void initUserDetailsCache() {
+        userDetailsCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(userDetailsCacheTtlSeconds))
+                .maximumSize(userDetailsCacheMaxSize)
+                .build();
+    }
 
     public List<Account> getAllAccounts() {
         return accountRepository.findAll();
     }
 
+    // Walks the whole collection in _id order, every page seeks past the last id of the previous one
+    public AccountCursorPageDto getAccountCursorPage(String cursor, int pageSize) {
+        Query query = new Query();
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(Criteria.where("id").gt(Utils.decodeIdCursor(cursor)));
+        }
+        // one extra account is fetched to know if there is a next page
+        query.with(Sort.by("id")).limit(pageSize + 1);
+
+        List<Account> accounts = new ArrayList<>(mongoTemplate.find(query, Account.class));
+        String nextCursor = null;
+        if (accounts.size() > pageSize) {
+            accounts = accounts.subList(0, pageSize);
+            nextCursor = Utils.encodeCursor(accounts.get(pageSize - 1).getId());
+        }
+        return new AccountCursorPageDto(accounts, nextCursor, pageSize);
+    }
+
+    // Backed by a Mongo cursor that fetches the documents in batches, the Stream must be closed after use
+    public Stream<Account> streamAllAccounts() {
+        return mongoTemplate.stream(new Query().cursorBatchSize(streamCursorBatchSize), Account.class);
+    }
+
     public Account getAccountById(String id) {
         return accountRepository.findById(id)
                 .orElseThrow(() -> new ApiException("No account with specified id was found", HttpStatus.NOT_FOUND));
@@ -40,11 +104,17 @@ public class AccountService implements UserDetailsService {
 
     public Account getAccountByUsername(String username) {
         final String METHOD_NAME = "getAccountByUsername";
-        log.info("Calling {} inside {} with username {}", METHOD_NAME, CLASS_NAME, username);
+        log.debug("Calling {} inside {} with username {}", METHOD_NAME, CLASS_NAME, username);
         return accountRepository.findByUsername(username)
                 .orElseThrow(() -> new ApiException("No account with specified username was found", HttpStatus.NOT_FOUND));
     }
 
+    // Resolves several accounts with a single query, usernames without an account are left out of the map
+    public Map<String, Account> getAccountsByUsernames(Collection<String> usernames) {
+        return accountRepository.findByUsernameIn(usernames).stream()
+                .collect(Collectors.toMap(Account::getUsername, Function.identity()));
+    }
+
     public Account getAccountByEmail(String email) {
         return accountRepository.findByEmail(email).orElse(null);
     }
@@ -55,24 +125,34 @@ public class AccountService implements UserDetailsService {
         return accountRepository.save(account);
     }
 
+    // The username of an account can not be changed, so the creator snapshots embedded in its transactions stay valid
     public Account updateAccount(String username, Account account) {
         account.setUsername(username);
         Account accountToUpdate = getAccountByUsername(username);
         account.setPassword(passwordEncoder.encode(account.getPassword()));
         accountToUpdate.update(account);
-        return accountRepository.save(accountToUpdate);
+        Account updatedAccount = accountRepository.save(accountToUpdate);
+        evictUserDetails(username);
+        return updatedAccount;
     }
 
     public void deleteAccount(String username) {
         Account accountToDelete = getAccountByUsername(username);
         accountRepository.delete(accountToDelete);
+        evictUserDetails(username);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Account account = accountRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("No account with username " + username + " found"));
-        return new DnTxUserDetails(account);
+        return userDetailsCache.get(username, key -> {
+            Account account = accountRepository.findByUsername(key)
+                    .orElseThrow(() -> new UsernameNotFoundException("No account with username " + key + " found"));
+            return new DnTxUserDetails(account);
+        });
+    }
+
+    public void evictUserDetails(String username) {
+        userDetailsCache.invalidate(username);
     }
 
     public Account login(String username, String password) {
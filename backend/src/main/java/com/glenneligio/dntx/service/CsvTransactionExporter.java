@@ -0,0 +1,126 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.model.*;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/*
+ * Writes a zip with one CSV file per transaction type, using the same columns and one row per item as the Excel export.
+ * Each type is read with its own cursor so the entries can be written one after the other.
+ */
+@Service
+public class CsvTransactionExporter implements ITransactionExporter {
+
+    @Override
+    public String getFormat() {
+        return "csv";
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/zip";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "zip";
+    }
+
+    @Override
+    public void export(TransactionSource source, OutputStream outputStream) throws IOException {
+        ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream, StandardCharsets.UTF_8);
+        zipOutputStream.setLevel(Deflater.BEST_SPEED);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(zipOutputStream, StandardCharsets.UTF_8), 64 * 1024);
+        for (TransactionType t : TransactionType.values()) {
+            zipOutputStream.putNextEntry(new ZipEntry(t.name() + ".csv"));
+            writeRow(writer, TransactionService.getColumnNames(t));
+            try (Stream<Transaction> transactions = source.stream(List.of(t))) {
+                for (Transaction transaction : (Iterable<Transaction>) transactions::iterator) {
+                    writeTransactionRows(writer, transaction);
+                }
+            }
+            writer.flush();
+            zipOutputStream.closeEntry();
+        }
+        zipOutputStream.finish();
+        zipOutputStream.flush();
+    }
+
+    private void writeTransactionRows(Writer writer, Transaction transaction) throws IOException {
+        if (transaction.getTransactionItems() == null) return;
+        for (TransactionItem item : transaction.getTransactionItems()) {
+            writeField(writer, transaction.getId(), true);
+            writeField(writer, transaction.getUsername(), false);
+            writeField(writer, transaction.getCreator() != null ? transaction.getCreator().getUsername() : null, false);
+            writeField(writer, transaction.getDateFinished() != null ? DateTimeFormatter.ISO_ZONED_DATE_TIME.format(transaction.getDateFinished()) : null, false);
+            writeField(writer, String.valueOf(transaction.isReversed()), false);
+            writeField(writer, transaction.getType().name(), false);
+
+            if (item instanceof CcToGoldTransactionItem cc) {
+                writeField(writer, cc.getCcAmount() != null ? cc.getCcAmount().toPlainString() : null, false);
+                writeField(writer, toText(cc.getGoldPerCC()), false);
+                writeField(writer, toText(cc.getGoldPaid()), false);
+            } else if (item instanceof GoldToPhpTransactionItem php) {
+                writeField(writer, php.getName(), false);
+                writeField(writer, toText(php.getPhpPaid()), false);
+                writeField(writer, toText(php.getGoldPerPhp()), false);
+                writeField(writer, php.getMethodOfPayment(), false);
+            } else if (item instanceof ItemToGoldTransactionItem gold) {
+                writeField(writer, gold.getItemName(), false);
+                writeField(writer, toText(gold.getItemQuantity()), false);
+                writeField(writer, toText(gold.getItemPriceInGold()), false);
+            }
+
+            // file attachments follow the type columns as (file name, file url) pairs, as in the Excel export
+            if (transaction.getFileAttachments() != null) {
+                for (FileAttachment f : transaction.getFileAttachments()) {
+                    writeField(writer, f.getFileName(), false);
+                    writeField(writer, f.getFileUrl(), false);
+                }
+            }
+            writer.write("\r\n");
+        }
+    }
+
+    private void writeRow(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            writeField(writer, values.get(i), i == 0);
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180 field, quoted only when it holds a separator, a quote or a line break
+    private void writeField(Writer writer, String value, boolean first) throws IOException {
+        if (!first) writer.write(',');
+        if (value == null) return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private String toText(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,243 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.enums.EmailOutboxStatus;
+import com.glenneligio.dntx.model.EmailOutboxMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Emails are stored in the email_outbox collection by the request and sent by a background dispatcher,
+ * so the requests never wait on the SMTP server.
+ * Every poll claims batches of due messages with findAndModify, which keeps the claim atomic across instances,
+ * and sends each batch over a single SMTP connection on the bounded emailOutboxExecutor.
+ * Failed messages are retried with exponential backoff until dntx.mail.outbox.max-attempts is reached.
+ */
+@Service
+@Slf4j
+public class EmailOutboxService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private JavaMailSender mailSender;
+    @Autowired
+    @Qualifier("emailOutboxExecutor")
+    private ThreadPoolTaskExecutor emailOutboxExecutor;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.mail.username}")
+    private String fromAddress;
+
+    // Number of messages sent over one SMTP connection
+    @Value("${dntx.mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${dntx.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    // Delay before the first retry, doubled after every further failed attempt up to the max backoff
+    @Value("${dntx.mail.outbox.initial-backoff-ms:5000}")
+    private long initialBackoffMs;
+
+    @Value("${dntx.mail.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    // Time a dispatcher has to send a claimed batch before another one may claim it again
+    @Value("${dntx.mail.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private Counter enqueuedCounter;
+    private Counter sentCounter;
+    private Counter retriedCounter;
+    private Counter failedCounter;
+    private Timer batchTimer;
+
+    @PostConstruct
+    public void initMetrics() {
+        enqueuedCounter = meterRegistry.counter("dntx.mail.outbox.messages", "result", "enqueued");
+        sentCounter = meterRegistry.counter("dntx.mail.outbox.messages", "result", "sent");
+        retriedCounter = meterRegistry.counter("dntx.mail.outbox.messages", "result", "retried");
+        failedCounter = meterRegistry.counter("dntx.mail.outbox.messages", "result", "failed");
+        batchTimer = meterRegistry.timer("dntx.mail.outbox.batch.send");
+        meterRegistry.gauge("dntx.mail.outbox.in.flight", inFlight);
+    }
+
+    public EmailOutboxMessage enqueue(String to, String subject, String body) {
+        ZonedDateTime now = ZonedDateTime.now();
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setBody(body);
+        message.setStatus(EmailOutboxStatus.PENDING);
+        message.setCreatedAt(now);
+        message.setNextAttemptAt(now);
+        EmailOutboxMessage saved = mongoTemplate.insert(message);
+        enqueuedCounter.increment();
+        return saved;
+    }
+
+    @Scheduled(fixedDelayString = "${dntx.mail.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        // only claim what the pool can take, the rest stays PENDING for the next poll
+        while (emailOutboxExecutor.getThreadPoolExecutor().getQueue().remainingCapacity() > 0) {
+            List<EmailOutboxMessage> batch = claimBatch();
+            if (batch.isEmpty()) return;
+            try {
+                emailOutboxExecutor.execute(() -> sendBatch(batch));
+            } catch (TaskRejectedException ex) {
+                log.warn("Email outbox pool is full, releasing {} claimed messages", batch.size());
+                batch.forEach(this::release);
+                return;
+            }
+        }
+    }
+
+    private List<EmailOutboxMessage> claimBatch() {
+        ZonedDateTime now = ZonedDateTime.now();
+        Query due = Query.query(new Criteria().orOperator(
+                        Criteria.where("status").is(EmailOutboxStatus.PENDING).and("nextAttemptAt").lte(now),
+                        Criteria.where("status").is(EmailOutboxStatus.SENDING).and("leaseExpiresAt").lte(now)))
+                .with(Sort.by("nextAttemptAt"));
+        Update claim = new Update()
+                .set("status", EmailOutboxStatus.SENDING)
+                .set("leaseExpiresAt", now.plus(Duration.ofMillis(leaseMs)))
+                .inc("attempts", 1);
+
+        List<EmailOutboxMessage> batch = new ArrayList<>();
+        while (batch.size() < batchSize) {
+            EmailOutboxMessage message = mongoTemplate.findAndModify(due, claim, FindAndModifyOptions.options().returnNew(true), EmailOutboxMessage.class);
+            if (message == null) break;
+            batch.add(message);
+        }
+        return batch;
+    }
+
+    private void sendBatch(List<EmailOutboxMessage> batch) {
+        inFlight.addAndGet(batch.size());
+        Map<SimpleMailMessage, EmailOutboxMessage> messages = new IdentityHashMap<>();
+        batch.forEach(message -> messages.put(toMailMessage(message), message));
+        try {
+            Map<Object, Exception> failedMessages = send(messages.keySet().toArray(new SimpleMailMessage[0]));
+            messages.forEach((mailMessage, message) -> {
+                Exception failure = failedMessages.get(mailMessage);
+                if (failure == null) markSent(message);
+                else markFailed(message, failure);
+            });
+        } finally {
+            inFlight.addAndGet(-batch.size());
+        }
+    }
+
+    // JavaMailSender sends all the messages over one connection, returns the messages that could not be sent
+    private Map<Object, Exception> send(SimpleMailMessage[] mailMessages) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            mailSender.send(mailMessages);
+            return Map.of();
+        } catch (MailSendException ex) {
+            if (!ex.getFailedMessages().isEmpty()) return ex.getFailedMessages();
+            return failAll(mailMessages, ex);
+        } catch (MailException ex) {
+            // e.g. authentication failures, nothing was sent
+            return failAll(mailMessages, ex);
+        } finally {
+            sample.stop(batchTimer);
+        }
+    }
+
+    private Map<Object, Exception> failAll(SimpleMailMessage[] mailMessages, Exception ex) {
+        Map<Object, Exception> failedMessages = new IdentityHashMap<>();
+        for (SimpleMailMessage mailMessage : mailMessages) failedMessages.put(mailMessage, ex);
+        return failedMessages;
+    }
+
+    private SimpleMailMessage toMailMessage(EmailOutboxMessage message) {
+        SimpleMailMessage mailMessage = new SimpleMailMessage();
+        mailMessage.setFrom(fromAddress);
+        mailMessage.setTo(message.getTo());
+        mailMessage.setSubject(message.getSubject());
+        mailMessage.setText(message.getBody());
+        return mailMessage;
+    }
+
+    // the body is dropped once the message is done with, it may carry a password reset link
+    private void markSent(EmailOutboxMessage message) {
+        if (updateClaimed(message, new Update().set("status", EmailOutboxStatus.SENT)
+                .set("sentAt", ZonedDateTime.now())
+                .unset("body")
+                .unset("leaseExpiresAt")
+                .unset("lastError"))) {
+            sentCounter.increment();
+        }
+    }
+
+    private void markFailed(EmailOutboxMessage message, Exception failure) {
+        Update update = new Update().set("lastError", String.valueOf(failure.getMessage())).unset("leaseExpiresAt");
+        if (message.getAttempts() >= maxAttempts) {
+            update.set("status", EmailOutboxStatus.FAILED).unset("body");
+            if (!updateClaimed(message, update)) return;
+            log.error("Giving up on email {} to {} after {} attempts", message.getId(), message.getTo(), message.getAttempts(), failure);
+            failedCounter.increment();
+        } else {
+            Duration backoff = getBackoff(message.getAttempts());
+            update.set("status", EmailOutboxStatus.PENDING).set("nextAttemptAt", ZonedDateTime.now().plus(backoff));
+            if (!updateClaimed(message, update)) return;
+            log.warn("Failed to send email {} to {}, attempt {}, retrying in {}", message.getId(), message.getTo(), message.getAttempts(), backoff, failure);
+            retriedCounter.increment();
+        }
+    }
+
+    // puts a claimed message back without counting the claim as an attempt
+    private void release(EmailOutboxMessage message) {
+        updateClaimed(message, new Update().set("status", EmailOutboxStatus.PENDING).unset("leaseExpiresAt").inc("attempts", -1));
+    }
+
+    /*
+     * Every claim increments attempts, so the update only matches while this dispatcher still holds the claim.
+     * When the lease expired and another dispatcher claimed the message again, its state is left alone.
+     */
+    private boolean updateClaimed(EmailOutboxMessage message, Update update) {
+        Query claimed = Query.query(Criteria.where("id").is(message.getId())
+                .and("status").is(EmailOutboxStatus.SENDING)
+                .and("attempts").is(message.getAttempts()));
+        if (mongoTemplate.updateFirst(claimed, update, EmailOutboxMessage.class).getMatchedCount() > 0) return true;
+        log.warn("Email {} to {} was claimed again after the lease of attempt {} expired, its outcome is not recorded", message.getId(), message.getTo(), message.getAttempts());
+        return false;
+    }
+
+    private Duration getBackoff(int attempts) {
+        // attempts is at least 1 here, the shift is capped so it can not overflow
+        long backoffMs = initialBackoffMs << Math.min(attempts - 1, 30);
+        return Duration.ofMillis(backoffMs <= 0 ? maxBackoffMs : Math.min(backoffMs, maxBackoffMs));
+    }
+}
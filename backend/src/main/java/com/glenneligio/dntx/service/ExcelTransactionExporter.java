@@ -0,0 +1,39 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+public class ExcelTransactionExporter implements ITransactionExporter {
+
+    @Autowired
+    private IExcelService<Transaction> excelService;
+
+    @Override
+    public String getFormat() {
+        return "xlsx";
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "xlsx";
+    }
+
+    @Override
+    public void export(TransactionSource source, OutputStream outputStream) {
+        try (Stream<Transaction> transactions = source.stream(List.of(TransactionType.values()))) {
+            excelService.streamToExcel(transactions, outputStream);
+        }
+    }
+}
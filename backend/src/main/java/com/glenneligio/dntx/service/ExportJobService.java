@@ -0,0 +1,173 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.enums.ExportJobStatus;
+import com.glenneligio.dntx.exception.ApiException;
+import com.glenneligio.dntx.model.ExportJob;
+import com.glenneligio.dntx.model.Transaction;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/*
+ * Runs the Excel exports of the transactions in the background. The workbook is written to a spool directory
+ * and kept there until the job expires, so a download that was cut can be resumed with a Range request.
+ */
+@Service
+@Slf4j
+public class ExportJobService {
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionMetrics transactionMetrics;
+    @Autowired
+    @Qualifier("exportJobExecutor")
+    private ThreadPoolTaskExecutor exportJobExecutor;
+
+    @Value("${dntx.export.jobs.spool-dir:${java.io.tmpdir}/dntx-exports}")
+    private Path spoolDir;
+    @Value("${dntx.export.jobs.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private final Map<String, ExportJob> exportJobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void initSpoolDir() throws IOException {
+        Files.createDirectories(spoolDir);
+        // the jobs are kept in memory, files left by a previous run can no longer be downloaded
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            files.forEach(this::deleteQuietly);
+        }
+    }
+
+    public synchronized ExportJob startExportJob(String username, ZonedDateTime afterDate, ZonedDateTime beforeDate) {
+        // a user asking again for the same export gets the job that is already running
+        ExportJob activeJob = exportJobs.values().stream()
+                .filter(job -> job.isActive()
+                        && job.getUsername().equals(username)
+                        && Objects.equals(job.getAfterDate(), afterDate)
+                        && Objects.equals(job.getBeforeDate(), beforeDate))
+                .findFirst()
+                .orElse(null);
+        if (activeJob != null) {
+            log.info("Export job {} is already running for {}", activeJob.getId(), username);
+            return activeJob;
+        }
+
+        ExportJob job = new ExportJob();
+        job.setId(new ObjectId().toHexString());
+        job.setUsername(username);
+        job.setAfterDate(afterDate);
+        job.setBeforeDate(beforeDate);
+        job.setStatus(ExportJobStatus.PENDING);
+        job.setCreatedAt(ZonedDateTime.now());
+        exportJobs.put(job.getId(), job);
+        try {
+            exportJobExecutor.execute(() -> runExportJob(job));
+        } catch (TaskRejectedException ex) {
+            exportJobs.remove(job.getId());
+            throw new ApiException("Too many exports are running, please try again later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return job;
+    }
+
+    public ExportJob getExportJob(String username, String id) {
+        ExportJob job = exportJobs.get(id);
+        if (job == null || !job.getUsername().equals(username)) {
+            throw new ApiException("No export job with specified id was found", HttpStatus.NOT_FOUND);
+        }
+        return job;
+    }
+
+    public Path getExportFile(String username, String id) {
+        ExportJob job = getExportJob(username, id);
+        if (job.getStatus() != ExportJobStatus.COMPLETED) {
+            throw new ApiException("Export job is " + job.getStatus(), HttpStatus.CONFLICT);
+        }
+        return job.getFile();
+    }
+
+    @Scheduled(fixedDelayString = "${dntx.export.jobs.cleanup-interval-ms:60000}")
+    public void cleanupExpiredJobs() {
+        ZonedDateTime now = ZonedDateTime.now();
+        exportJobs.values().removeIf(job -> {
+            if (job.getExpiresAt() == null || job.getExpiresAt().isAfter(now)) return false;
+            log.info("Export job {} expired", job.getId());
+            if (job.getFile() != null) deleteQuietly(job.getFile());
+            return true;
+        });
+
+        // spool files of jobs that no longer exist, e.g. parts of a job killed by a shutdown
+        Instant threshold = Instant.now().minus(Duration.ofMinutes(ttlMinutes));
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            files.filter(file -> isOlderThan(file, threshold)
+                            && !exportJobs.containsKey(file.getFileName().toString().split("\\.")[0]))
+                    .forEach(this::deleteQuietly);
+        } catch (IOException ex) {
+            log.warn("Failed to list the export spool directory {}", spoolDir, ex);
+        }
+    }
+
+    private void runExportJob(ExportJob job) {
+        job.setStatus(ExportJobStatus.RUNNING);
+        Path partFile = spoolDir.resolve(job.getId() + ".xlsx.part");
+        try {
+            job.setTotalTransactions(transactionService.countTransactionByCreatorUsernameAndDateBetween(job.getUsername(), job.getAfterDate(), job.getBeforeDate()));
+            try (Stream<Transaction> transactions = transactionService.streamTransactionByCreatorUsernameAndDateBetween(job.getUsername(), job.getAfterDate(), job.getBeforeDate());
+                 OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(partFile))) {
+                transactionService.streamToExcel(transactions.peek(tx -> job.getProcessedTransactions().incrementAndGet()), outputStream);
+            }
+            Path file = spoolDir.resolve(job.getId() + ".xlsx");
+            Files.move(partFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.setFile(file);
+            job.setStatus(ExportJobStatus.COMPLETED);
+            transactionMetrics.recordExport("xlsx", job.getProcessedTransactions().get());
+            log.info("Export job {} completed with {} transactions", job.getId(), job.getProcessedTransactions().get());
+        } catch (Exception ex) {
+            log.error("Export job {} failed", job.getId(), ex);
+            deleteQuietly(partFile);
+            job.setError(ex.getMessage());
+            job.setStatus(ExportJobStatus.FAILED);
+        }
+        job.setCompletedAt(ZonedDateTime.now());
+        job.setExpiresAt(job.getCompletedAt().plusMinutes(ttlMinutes));
+    }
+
+    private boolean isOlderThan(Path file, Instant threshold) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(threshold);
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Failed to delete export file {}", file, ex);
+        }
+    }
+}
@@ -3,11 +3,20 @@ import com.glenneligio.dntx.model.Transaction;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface IExcelService<T> {
     ByteArrayInputStream listToExcel(List<T> objects);
 
+    void listToExcel(List<T> objects, OutputStream outputStream);
+
+    void streamToExcel(Stream<T> objects, OutputStream outputStream);
+
     List<T> excelToList(MultipartFile file);
+
+    void excelToChunks(MultipartFile file, int chunkSize, Consumer<List<T>> chunkConsumer);
 }
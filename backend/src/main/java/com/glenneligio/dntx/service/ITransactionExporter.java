@@ -0,0 +1,27 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.model.Transaction;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.Stream;
+
+// A file format the transactions can be exported to, selected by its format name
+public interface ITransactionExporter {
+
+    String getFormat();
+
+    String getContentType();
+
+    String getFileExtension();
+
+    void export(TransactionSource source, OutputStream outputStream) throws IOException;
+
+    // Opens a stream over the transactions of the given types, the exporter closes every stream it opens
+    @FunctionalInterface
+    interface TransactionSource {
+        Stream<Transaction> stream(List<TransactionType> txTypes);
+    }
+}
@@ -0,0 +1,52 @@
+package com.glenneligio.dntx.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Writes the transactions as gzipped newline delimited JSON, one transaction per line
+@Service
+public class NdjsonTransactionExporter implements ITransactionExporter {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public String getFormat() {
+        return "ndjson";
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/gzip";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "ndjson.gz";
+    }
+
+    @Override
+    public void export(TransactionSource source, OutputStream outputStream) throws IOException {
+        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 64 * 1024) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        };
+        try (Stream<Transaction> transactions = source.stream(List.of(TransactionType.values()))) {
+            Utils.writeNdjson(objectMapper, transactions, gzipOutputStream);
+        }
+        gzipOutputStream.finish();
+        gzipOutputStream.flush();
+    }
+}
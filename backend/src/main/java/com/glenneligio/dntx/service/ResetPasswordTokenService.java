@@ -39,9 +39,11 @@ public class ResetPasswordTokenService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private AccountService accountService;
+
     public void redeemResetPasswordToken(String newPassword, String token) throws NoSuchAlgorithmException {
         String hashedToken = Utils.hashSHA256(token);
-        log.info("Hashed token {}", hashedToken);
 
         // check if token does exist in database
         ResetPasswordToken resetPasswordToken = resetPasswordTokenRepository.findByToken(hashedToken)
@@ -80,6 +82,7 @@ public class ResetPasswordTokenService {
                 .orElseThrow(() -> new ApiException("Invalid password reset token", HttpStatus.BAD_REQUEST));
         account.setPassword(passwordEncoder.encode(newPassword));
         accountRepository.save(account);
+        accountService.evictUserDetails(account.getUsername());
     }
 
     public String createPasswordToken() throws NoSuchAlgorithmException, InvalidKeySpecException {
@@ -106,7 +109,7 @@ public class ResetPasswordTokenService {
 
     public void createResetPasswordToken (Account account, String token) throws NoSuchAlgorithmException, InvalidKeySpecException {
         String hashedToken = Utils.hashSHA256(token);
-        log.info("Hashed token {}, Token {}", hashedToken, token);
+        log.info("Creating reset password token for account {}", account.getId());
 
         ResetPasswordToken resetPasswordToken = new ResetPasswordToken();
         resetPasswordToken.setToken(hashedToken);
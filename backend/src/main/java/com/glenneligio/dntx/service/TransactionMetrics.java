@@ -0,0 +1,58 @@
+package com.glenneligio.dntx.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Size and throughput of the Excel conversions and of the exports
+@Component
+public class TransactionMetrics {
+
+    public static final String LIST_TO_EXCEL = "listToExcel";
+    public static final String EXCEL_TO_LIST = "excelToList";
+
+    private final MeterRegistry meterRegistry;
+
+    // rows per second of the last run of each operation, read by the gauges
+    private final Map<String, AtomicLong> rowsPerSecond = new ConcurrentHashMap<>();
+
+    public TransactionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordExcelRows(String operation, long rows, long startNanos) {
+        long elapsedNanos = Math.max(System.nanoTime() - startNanos, 1);
+        DistributionSummary.builder("dntx.excel.rows")
+                .description("Rows written or read per Excel conversion")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(rows);
+        rowsPerSecond.computeIfAbsent(operation, this::registerRowsPerSecondGauge)
+                .set(rows * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+    }
+
+    public void recordExport(String format, long transactions) {
+        DistributionSummary.builder("dntx.export.transactions")
+                .description("Transactions written per export")
+                .tag("format", format)
+                .register(meterRegistry)
+                .record(transactions);
+    }
+
+    public void recordImport(long transactions) {
+        DistributionSummary.builder("dntx.import.transactions")
+                .description("Transactions read per import")
+                .register(meterRegistry)
+                .record(transactions);
+    }
+
+    private AtomicLong registerRowsPerSecondGauge(String operation) {
+        return meterRegistry.gauge("dntx.excel.rows.per.second", Tags.of("operation", operation), new AtomicLong());
+    }
+}
@@ -0,0 +1,234 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.model.*;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/*
+ * Maintains the transaction_daily_rollups collection. Every change to a transaction is turned into $inc deltas
+ * on the rollup of its (creator, type, UTC day), reversed transactions never contribute to the rollups.
+ * The rollups only hold complete totals once they were built from the existing transactions, which happens
+ * in the background on the first start with dntx.stats.use-rollups enabled, and is recorded in transaction_rollup_state.
+ * Transaction writes run fenced against rebuild(), otherwise the $out of a rebuild would drop the $inc of a write
+ * that lands while the aggregation runs. The fence is per instance, the backend is deployed as a single replica.
+ */
+@Service
+@Slf4j
+public class TransactionRollupService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${dntx.stats.use-rollups:true}")
+    private boolean useRollups;
+
+    // only ever goes from false to true, so it is cached once the state document exists
+    private volatile boolean built;
+
+    // fair, so a waiting rebuild is not starved by a steady stream of writes
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock(true);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildMissingRollups() {
+        if (!useRollups || isBuilt()) return;
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception ex) {
+                log.error("Failed to build the transaction daily rollups, the stats keep reading the transactions", ex);
+            }
+        }, "transaction-rollup-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isBuilt() {
+        if (!built) {
+            built = mongoTemplate.exists(Query.query(Criteria.where("id").is(TransactionRollupState.DAILY_ROLLUPS)), TransactionRollupState.class);
+        }
+        return built;
+    }
+
+    // Runs a transaction write together with its rollup update, writes share the fence and only exclude a rebuild
+    public <T> T fenced(Supplier<T> write) {
+        rebuildLock.readLock().lock();
+        try {
+            return write.get();
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void applyCreated(Transaction transaction) {
+        apply(List.of(), List.of(transaction));
+    }
+
+    public void applyUpdated(Transaction previous, Transaction updated) {
+        apply(List.of(previous), List.of(updated));
+    }
+
+    public void applyDeleted(Transaction transaction) {
+        apply(List.of(transaction), List.of());
+    }
+
+    public void apply(List<Transaction> removed, List<Transaction> added) {
+        Map<RollupKey, RollupDelta> deltas = new LinkedHashMap<>();
+        removed.forEach(tx -> accumulate(deltas, tx, -1));
+        added.forEach(tx -> accumulate(deltas, tx, 1));
+        deltas.values().removeIf(RollupDelta::isEmpty);
+        if (deltas.isEmpty()) return;
+
+        try {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionDailyRollup.class);
+            deltas.forEach((key, delta) -> bulkOperations.upsert(Query.query(Criteria.where("creatorId").is(key.creatorId())
+                            .and("type").is(key.type())
+                            .and("day").is(key.day())),
+                    delta.toUpdate()));
+            bulkOperations.execute();
+        } catch (RuntimeException ex) {
+            // the transaction itself is already written, the rollups can be regenerated with rebuild()
+            log.error("Failed to update {} transaction rollups", deltas.size(), ex);
+        }
+    }
+
+    // Regenerates all rollups from the transactions collection, replacing the rollup collection atomically with $out
+    public long rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            return rebuildFenced();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private long rebuildFenced() {
+        log.info("Rebuilding the transaction daily rollups");
+        AggregationOperation project = context -> new Document("$project", TransactionStatsService.itemTotals()
+                .append("creatorId", new Document("$toString", "$creator._id"))
+                .append("type", 1)
+                .append("day", new Document("$dateTrunc", new Document("date", "$dateFinished").append("unit", "day").append("timezone", "UTC"))));
+        AggregationOperation group = context -> new Document("$group", TransactionStatsService.sumTotals(new Document("creatorId", "$creatorId")
+                        .append("type", "$type")
+                        .append("day", "$day"))
+                .append("transactionCount", new Document("$sum", 1)));
+        AggregationOperation flatten = context -> {
+            Document fields = new Document("_id", 0)
+                    .append("creatorId", "$_id.creatorId")
+                    .append("type", "$_id.type")
+                    .append("day", "$_id.day")
+                    .append("transactionCount", 1);
+            TransactionStatsService.TOTAL_FIELDS.forEach(field -> fields.append(field, 1));
+            return new Document("$project", fields);
+        };
+
+        TypedAggregation<Transaction> aggregation = Aggregation.newAggregation(Transaction.class,
+                        Aggregation.match(Criteria.where("reversed").is(false)),
+                        project,
+                        group,
+                        flatten,
+                        Aggregation.out(mongoTemplate.getCollectionName(TransactionDailyRollup.class)))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        mongoTemplate.aggregate(aggregation, Document.class);
+
+        long rollups = mongoTemplate.count(new Query(), TransactionDailyRollup.class);
+        mongoTemplate.save(new TransactionRollupState(TransactionRollupState.DAILY_ROLLUPS, ZonedDateTime.now(), rollups));
+        built = true;
+        log.info("Rebuilt {} transaction daily rollups", rollups);
+        return rollups;
+    }
+
+    private void accumulate(Map<RollupKey, RollupDelta> deltas, Transaction transaction, int sign) {
+        if (transaction.isReversed() || transaction.getCreator() == null || transaction.getDateFinished() == null) return;
+        ZonedDateTime day = transaction.getDateFinished().withZoneSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        RollupKey key = new RollupKey(transaction.getCreator().getId(), transaction.getType(), day);
+        deltas.computeIfAbsent(key, k -> new RollupDelta()).add(transaction, sign);
+    }
+
+    private record RollupKey(String creatorId, TransactionType type, ZonedDateTime day) {
+    }
+
+    private static class RollupDelta {
+        private long transactionCount;
+        private long itemCount;
+        private double goldPaid;
+        private BigDecimal ccAmount = BigDecimal.ZERO;
+        private double phpPaid;
+        private double itemGold;
+        private double goldPerCCSum;
+        private long goldPerCCCount;
+        private double goldPerPhpSum;
+        private long goldPerPhpCount;
+
+        void add(Transaction transaction, int sign) {
+            transactionCount += sign;
+            List<TransactionItem> items = transaction.getTransactionItems() != null ? transaction.getTransactionItems() : List.of();
+            itemCount += (long) sign * items.size();
+            for (TransactionItem item : items) {
+                if (item instanceof CcToGoldTransactionItem cc) {
+                    if (cc.getGoldPaid() != null) goldPaid += sign * cc.getGoldPaid();
+                    if (cc.getCcAmount() != null) ccAmount = ccAmount.add(cc.getCcAmount().multiply(BigDecimal.valueOf(sign)));
+                    if (cc.getGoldPerCC() != null) {
+                        goldPerCCSum += sign * cc.getGoldPerCC();
+                        goldPerCCCount += sign;
+                    }
+                } else if (item instanceof GoldToPhpTransactionItem php) {
+                    if (php.getPhpPaid() != null) phpPaid += sign * php.getPhpPaid();
+                    if (php.getGoldPerPhp() != null) {
+                        goldPerPhpSum += sign * php.getGoldPerPhp();
+                        goldPerPhpCount += sign;
+                    }
+                } else if (item instanceof ItemToGoldTransactionItem gold) {
+                    if (gold.getItemQuantity() != null && gold.getItemPriceInGold() != null) {
+                        itemGold += sign * gold.getItemQuantity() * gold.getItemPriceInGold();
+                    }
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return transactionCount == 0 && itemCount == 0 && goldPaid == 0 && ccAmount.signum() == 0 && phpPaid == 0
+                    && itemGold == 0 && goldPerCCSum == 0 && goldPerCCCount == 0 && goldPerPhpSum == 0 && goldPerPhpCount == 0;
+        }
+
+        Update toUpdate() {
+            return new Update()
+                    .inc("transactionCount", transactionCount)
+                    .inc("itemCount", itemCount)
+                    .inc("goldPaid", goldPaid)
+                    .inc("ccAmount", new Decimal128(ccAmount))
+                    .inc("phpPaid", phpPaid)
+                    .inc("itemGold", itemGold)
+                    .inc("goldPerCCSum", goldPerCCSum)
+                    .inc("goldPerCCCount", goldPerCCCount)
+                    .inc("goldPerPhpSum", goldPerPhpSum)
+                    .inc("goldPerPhpCount", goldPerPhpCount);
+        }
+    }
+}
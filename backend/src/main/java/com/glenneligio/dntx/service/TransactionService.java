@@ -1,37 +1,87 @@
 package com.glenneligio.dntx.service;
 
 
+import com.glenneligio.dntx.dtos.BatchCreateResultDto;
+import com.glenneligio.dntx.dtos.BatchItemResultDto;
+import com.glenneligio.dntx.dtos.BulkImportResultDto;
+import com.glenneligio.dntx.dtos.CreateUpdateTransactionDto;
+import com.glenneligio.dntx.dtos.TransactionCursorPageDto;
+import com.glenneligio.dntx.dtos.TransactionSummaryDto;
 import com.glenneligio.dntx.enums.TransactionType;
 import com.glenneligio.dntx.exception.ApiException;
 import com.glenneligio.dntx.model.*;
+import com.glenneligio.dntx.repository.TransactionQueryBuilder;
 import com.glenneligio.dntx.repository.TransactionRepository;
+import com.glenneligio.dntx.util.MongoQueryExplainer;
+import com.glenneligio.dntx.util.Utils;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.*;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
+@Timed(value = "dntx.service", histogram = true)
 public class TransactionService implements IExcelService<Transaction> {
 
     private static final String CLASS_NAME = TransactionService.class.getName();
@@ -41,30 +91,198 @@ public class TransactionService implements IExcelService<Transaction> {
     private static final List<String> itemToGoldColumnNames = List.of("Item name", "Item quantity", "Item price in gold");
     private static final List<TransactionType> txTypes = List.of(TransactionType.CC2GOLD, TransactionType.GOLD2PHP, TransactionType.ITEM2GOLD);
 
-    @Autowired
-    private TransactionRepository transactionRepository;
-    @Autowired
-    private Validator validator;
-    @Autowired
-    private AccountService accountService;
+    private final TransactionRepository transactionRepository;
+    private final Validator validator;
+    private final AccountService accountService;
+    private final MongoTemplate mongoTemplate;
+    private final TransactionRollupService transactionRollupService;
+    private final MongoQueryExplainer mongoQueryExplainer;
+    private final TransactionMetrics transactionMetrics;
+
+    // Number of rows kept in memory per sheet when streaming the Excel export, older rows are flushed to disk
+    private final int exportRowAccessWindow;
+    // Number of transactions fetched per round trip by the export cursors
+    private final int exportCursorBatchSize;
+    // Number of transactions read from an uploaded Excel file before they are persisted with one unordered bulk write
+    private final int importChunkSize;
+    // Maximum number of transactions accepted by the batch create endpoints
+    private final int batchCreateMaxSize;
+
+    // constructor injection, the unit tests and benchmarks build the service without the Spring context
+    public TransactionService(TransactionRepository transactionRepository,
+                              Validator validator,
+                              AccountService accountService,
+                              MongoTemplate mongoTemplate,
+                              TransactionRollupService transactionRollupService,
+                              MongoQueryExplainer mongoQueryExplainer,
+                              TransactionMetrics transactionMetrics,
+                              @Value("${dntx.export.row-access-window:100}") int exportRowAccessWindow,
+                              @Value("${dntx.export.cursor-batch-size:500}") int exportCursorBatchSize,
+                              @Value("${dntx.import.chunk-size:500}") int importChunkSize,
+                              @Value("${dntx.transactions.batch.max-size:500}") int batchCreateMaxSize) {
+        this.transactionRepository = transactionRepository;
+        this.validator = validator;
+        this.accountService = accountService;
+        this.mongoTemplate = mongoTemplate;
+        this.transactionRollupService = transactionRollupService;
+        this.mongoQueryExplainer = mongoQueryExplainer;
+        this.transactionMetrics = transactionMetrics;
+        this.exportRowAccessWindow = exportRowAccessWindow;
+        this.exportCursorBatchSize = exportCursorBatchSize;
+        this.importChunkSize = importChunkSize;
+        this.batchCreateMaxSize = batchCreateMaxSize;
+    }
 
     @Transactional
     public Transaction createTransaction(Transaction transaction) {
-        log.info("Creating transaction {}", transaction);
+        if (log.isDebugEnabled()) log.debug("Creating transaction {}", transaction);
         Account account = accountService.getAccountByUsername(transaction.getCreator().getUsername());
-        transaction.setCreator(account);
+        transaction.setCreator(new TransactionCreator(account));
         transaction.setDateFinished(transaction.getDateFinished() != null ? transaction.getDateFinished() : ZonedDateTime.now());
 
         transaction.setTransactionItems(Transaction.convertTransactionItems(transaction));
         transaction.setFileAttachments(transaction.getFileAttachments() != null ? transaction.getFileAttachments() : new ArrayList<>());
         validateTransaction(transaction);
-        return transactionRepository.save(transaction);
+        // a null version makes save() insert the transaction and start its version at 0
+        transaction.setVersion(null);
+        return transactionRollupService.fenced(() -> {
+            Transaction createdTransaction = transactionRepository.save(transaction);
+            transactionRollupService.applyCreated(createdTransaction);
+            return createdTransaction;
+        });
+    }
+
+    /*
+     * Creates the transactions with a single unordered bulk insert. Each item is validated on its own and the
+     * result of every item is reported by its index, a creatorUsername forces the creator of all items.
+     */
+    public BatchCreateResultDto createTransactions(List<CreateUpdateTransactionDto> dtos, String creatorUsername) {
+        if (dtos == null || dtos.isEmpty()) throw new ApiException("Transactions must not be empty", HttpStatus.BAD_REQUEST);
+        if (dtos.size() > batchCreateMaxSize) {
+            throw new ApiException("Can only create up to " + batchCreateMaxSize + " transactions at once", HttpStatus.BAD_REQUEST);
+        }
+
+        // the creators are resolved once for the whole batch
+        Set<String> usernames = new HashSet<>();
+        if (creatorUsername != null) {
+            usernames.add(creatorUsername);
+        } else {
+            dtos.stream().filter(dto -> dto != null && dto.getCreator() != null && dto.getCreator().getUsername() != null)
+                    .forEach(dto -> usernames.add(dto.getCreator().getUsername()));
+        }
+        Map<String, Account> creators = accountService.getAccountsByUsernames(usernames);
+
+        BatchCreateResultDto result = new BatchCreateResultDto();
+        List<BatchItemResultDto> queuedResults = new ArrayList<>();
+        List<Transaction> queuedTransactions = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            CreateUpdateTransactionDto dto = dtos.get(i);
+            BatchItemResultDto itemResult = new BatchItemResultDto();
+            itemResult.setIndex(i);
+            result.getResults().add(itemResult);
+            if (dto == null) {
+                itemResult.setStatus(HttpStatus.BAD_REQUEST.value());
+                itemResult.getErrors().add("Transaction must not be null");
+                continue;
+            }
+            if (creatorUsername != null) dto.setCreator(new TransactionCreator(null, creatorUsername));
+
+            Set<ConstraintViolation<CreateUpdateTransactionDto>> dtoViolations = validator.validate(dto);
+            if (!dtoViolations.isEmpty()) {
+                itemResult.setStatus(HttpStatus.BAD_REQUEST.value());
+                dtoViolations.forEach(v -> itemResult.getErrors().add(v.getPropertyPath() + ": " + v.getMessage()));
+                continue;
+            }
+            Account creator = creators.get(dto.getCreator().getUsername());
+            if (creator == null) {
+                itemResult.setStatus(HttpStatus.NOT_FOUND.value());
+                itemResult.getErrors().add("No account with specified username was found");
+                continue;
+            }
+
+            try {
+                Transaction transaction = dto.toTransaction();
+                // ids are assigned up front so they can be reported without reading the inserted documents back
+                transaction.setId(new ObjectId().toHexString());
+                // bulk inserts do not initialize the @Version property
+                transaction.setVersion(0L);
+                transaction.setCreator(new TransactionCreator(creator));
+                transaction.setDateFinished(transaction.getDateFinished() != null ? transaction.getDateFinished() : ZonedDateTime.now());
+                transaction.setTransactionItems(Transaction.convertTransactionItems(transaction));
+                transaction.setFileAttachments(transaction.getFileAttachments() != null ? transaction.getFileAttachments() : new ArrayList<>());
+                validateTransaction(transaction);
+                itemResult.setId(transaction.getId());
+                queuedTransactions.add(transaction);
+                queuedResults.add(itemResult);
+            } catch (ConstraintViolationException ex) {
+                itemResult.setStatus(HttpStatus.BAD_REQUEST.value());
+                if (ex.getConstraintViolations().isEmpty()) itemResult.getErrors().add(ex.getMessage());
+                ex.getConstraintViolations().forEach(v -> itemResult.getErrors().add(v.getPropertyPath() + ": " + v.getMessage()));
+            } catch (ApiException ex) {
+                itemResult.setStatus(ex.getStatus().value());
+                itemResult.getErrors().add(ex.getMessage());
+            }
+        }
+
+        if (!queuedTransactions.isEmpty()) {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class);
+            bulkOperations.insert(queuedTransactions);
+            List<Transaction> createdTransactions = transactionRollupService.fenced(() -> {
+                Set<Integer> failedIndexes = new HashSet<>();
+                try {
+                    bulkOperations.execute();
+                } catch (BulkOperationException ex) {
+                    for (BulkWriteError error : ex.getErrors()) {
+                        failedIndexes.add(error.getIndex());
+                        BatchItemResultDto itemResult = queuedResults.get(error.getIndex());
+                        itemResult.setStatus(HttpStatus.CONFLICT.value());
+                        itemResult.getErrors().add(error.getMessage());
+                        itemResult.setId(null);
+                    }
+                }
+                List<Transaction> created = new ArrayList<>();
+                for (int i = 0; i < queuedTransactions.size(); i++) {
+                    if (failedIndexes.contains(i)) continue;
+                    queuedResults.get(i).setStatus(HttpStatus.CREATED.value());
+                    created.add(queuedTransactions.get(i));
+                }
+                transactionRollupService.apply(List.of(), created);
+                return created;
+            });
+            result.setCreated(createdTransactions.size());
+        }
+        result.setFailed(dtos.size() - result.getCreated());
+        log.info("Batch of {} transactions created: {}, failed: {}", dtos.size(), result.getCreated(), result.getFailed());
+        return result;
     }
 
     public List<Transaction> getAllTransactions() {
         return transactionRepository.findAll();
     }
 
+    // Walks the whole collection in _id order, every page seeks past the last id of the previous one
+    public TransactionCursorPageDto getTransactionCursorPage(String cursor, int pageSize) {
+        Query query = new Query();
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(Criteria.where("id").gt(Utils.decodeIdCursor(cursor)));
+        }
+        // one extra transaction is fetched to know if there is a next page
+        query.with(Sort.by("id")).limit(pageSize + 1);
+
+        List<Transaction> transactions = new ArrayList<>(mongoTemplate.find(query, Transaction.class));
+        String nextCursor = null;
+        if (transactions.size() > pageSize) {
+            transactions = transactions.subList(0, pageSize);
+            nextCursor = Utils.encodeCursor(transactions.get(pageSize - 1).getId());
+        }
+        return new TransactionCursorPageDto(transactions, nextCursor, pageSize, null);
+    }
+
+    // Backed by a Mongo cursor that fetches the documents in batches, the Stream must be closed after use
+    public Stream<Transaction> streamAllTransactions() {
+        return mongoTemplate.stream(new Query().cursorBatchSize(exportCursorBatchSize), Transaction.class);
+    }
+
     public Transaction getTransactionById(String id) {
         return transactionRepository.findById(id)
                 .orElseThrow(() -> new ApiException("No transaction exist with specified id", HttpStatus.NOT_FOUND));
@@ -77,18 +295,105 @@ public class TransactionService implements IExcelService<Transaction> {
 
     public Transaction updateTransaction(String id, Transaction updatedTx) {
         final String METHOD_NAME = "updateTransaction";
-        log.info("Inside {} of {} with inputs {} and {}", METHOD_NAME, CLASS_NAME, id, updatedTx);
+        log.info("Inside {} of {} with id {}", METHOD_NAME, CLASS_NAME, id);
+        if (log.isDebugEnabled()) log.debug("Updated transaction {}", updatedTx);
         var transactionToBeUpdated = getTransactionById(id);
+        if (updatedTx.getVersion() != null && !updatedTx.getVersion().equals(transactionToBeUpdated.getVersion())) {
+            throw new ApiException("Transaction was modified by another request, please reload it and try again", HttpStatus.CONFLICT);
+        }
+        // update() replaces the fields instead of mutating them, so a shallow copy keeps the previous state for the rollups
+        Transaction previousTx = new Transaction();
+        BeanUtils.copyProperties(transactionToBeUpdated, previousTx);
 
         transactionToBeUpdated.update(updatedTx);
         validateTransaction(transactionToBeUpdated);
-        return transactionRepository.save(transactionToBeUpdated);
+        return transactionRollupService.fenced(() -> {
+            Transaction savedTransaction = transactionRepository.save(transactionToBeUpdated);
+            transactionRollupService.applyUpdated(previousTx, savedTransaction);
+            return savedTransaction;
+        });
     }
 
     public Transaction deleteTransaction(String id) {
         var transactionToBeDeleted = getTransactionById(id);
-        transactionRepository.deleteById(transactionToBeDeleted.getId());
-        return transactionToBeDeleted;
+        return transactionRollupService.fenced(() -> {
+            transactionRepository.deleteById(transactionToBeDeleted.getId());
+            transactionRollupService.applyDeleted(transactionToBeDeleted);
+            return transactionToBeDeleted;
+        });
+    }
+
+    /*
+     * Updates a transaction of the creator with a single findAndModify filtered on the id, the creator, the type
+     * and optionally the version the update is based on. The previous document is returned by Mongo, the updated
+     * transaction is derived from it so no other read is needed.
+     */
+    public Transaction updateOwnTransaction(String id, String creatorUsername, Transaction updatedTx) {
+        log.info("Updating own transaction {} of {}", id, creatorUsername);
+        // validate the new state before writing it, the type can not be changed by an update
+        Transaction candidate = new Transaction();
+        candidate.setCreator(new TransactionCreator(null, creatorUsername));
+        candidate.setType(updatedTx.getType());
+        candidate.update(updatedTx);
+        validateTransaction(candidate);
+
+        Query query = ownTransactionQuery(id, creatorUsername, updatedTx.getVersion())
+                .addCriteria(Criteria.where("type").is(updatedTx.getType()));
+        Update update = new Update()
+                .set("username", candidate.getUsername())
+                .set("fileAttachments", candidate.getFileAttachments())
+                .set("dateFinished", candidate.getDateFinished())
+                .set("reversed", candidate.isReversed())
+                .set("transactionItems", candidate.getTransactionItems())
+                .inc("version", 1);
+        return transactionRollupService.fenced(() -> {
+            Transaction previousTx = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Transaction.class);
+            if (previousTx == null) throw ownTransactionMiss(id, creatorUsername, updatedTx, "You can only update your own transactions");
+
+            Transaction savedTransaction = new Transaction();
+            BeanUtils.copyProperties(previousTx, savedTransaction);
+            savedTransaction.update(candidate);
+            savedTransaction.setVersion(previousTx.getVersion() != null ? previousTx.getVersion() + 1 : 1L);
+            transactionRollupService.applyUpdated(previousTx, savedTransaction);
+            return savedTransaction;
+        });
+    }
+
+    // Deletes a transaction of the creator with a single findAndRemove, optionally checking the version
+    public Transaction deleteOwnTransaction(String id, String creatorUsername, Long version) {
+        log.info("Deleting own transaction {} of {}", id, creatorUsername);
+        return transactionRollupService.fenced(() -> {
+            Transaction deletedTransaction = mongoTemplate.findAndRemove(ownTransactionQuery(id, creatorUsername, version), Transaction.class);
+            if (deletedTransaction == null) {
+                Transaction expected = new Transaction();
+                expected.setVersion(version);
+                throw ownTransactionMiss(id, creatorUsername, expected, "You can only delete your own transactions");
+            }
+            transactionRollupService.applyDeleted(deletedTransaction);
+            return deletedTransaction;
+        });
+    }
+
+    private Query ownTransactionQuery(String id, String creatorUsername, Long version) {
+        // the creator snapshot holds the username, so the owner check needs no account lookup
+        Criteria criteria = Criteria.where("id").is(id).and("creator.username").is(creatorUsername);
+        if (version != null) criteria.and("version").is(version);
+        return Query.query(criteria);
+    }
+
+    // Only reached when the conditional write matched nothing, finds out which condition failed
+    private ApiException ownTransactionMiss(String id, String creatorUsername, Transaction expected, String notOwnedMessage) {
+        Transaction current = transactionRepository.findById(id).orElse(null);
+        if (current == null) {
+            return new ApiException("No transaction exist with specified id", HttpStatus.NOT_FOUND);
+        }
+        if (current.getCreator() == null || !creatorUsername.equals(current.getCreator().getUsername())) {
+            return new ApiException(notOwnedMessage, HttpStatus.UNAUTHORIZED);
+        }
+        if (expected.getType() != null && expected.getType() != current.getType()) {
+            return new ApiException("Transaction type can not be changed", HttpStatus.BAD_REQUEST);
+        }
+        return new ApiException("Transaction was modified by another request, please reload it and try again", HttpStatus.CONFLICT);
     }
 
     public List<Transaction> getTransactionsByCreatorUsername(String username) {
@@ -103,17 +408,149 @@ public class TransactionService implements IExcelService<Transaction> {
                                                                                     int pageNumber,
                                                                                     int pageSize) {
         Account account = accountService.getAccountByUsername(username);
-        log.info("Username: {}, txTypes: {}, afterDate: {}, beforeDate: {}. pageNumber: {}, pageSize: {}", username, txTypes, afterDate, beforeDate, pageNumber, pageSize);
-        Page<Transaction> transaction = transactionRepository.findOwnTransactionsUsingDateFinishedAndTxType(account.getId(), txTypes, afterDate, beforeDate, PageRequest.of(pageNumber - 1, pageSize).withSort(Sort.by("dateFinished").descending()));
-        log.info("Transactions: {}", transaction.getContent());
+        log.debug("Username: {}, txTypes: {}, afterDate: {}, beforeDate: {}. pageNumber: {}, pageSize: {}", username, txTypes, afterDate, beforeDate, pageNumber, pageSize);
+        Pageable pageable = PageRequest.of(pageNumber - 1, pageSize, TransactionQueryBuilder.NEWEST_FIRST);
+        Criteria criteria = TransactionQueryBuilder.ownedBy(account.getId())
+                .types(txTypes)
+                .finishedAfter(afterDate)
+                .finishedBefore(beforeDate)
+                .toCriteria();
+        Query query = Query.query(criteria).with(pageable);
+        mongoQueryExplainer.logQueryPlan("own transactions page", Transaction.class, query);
+
+        List<Transaction> transactions = mongoTemplate.find(query, Transaction.class);
+        // the count is skipped when the page already tells the total, e.g. a first page that is not full
+        Page<Transaction> transaction = PageableExecutionUtils.getPage(transactions, pageable,
+                () -> mongoTemplate.count(Query.query(criteria), Transaction.class));
+        if (log.isDebugEnabled()) log.debug("Transactions: {}", transaction.getContent());
         return transaction;
     }
 
+    // Same page as getTransactionPageByCreatorUsernameTypeAndDateFinished, reduced on the server to the summary of each transaction
+    public Page<TransactionSummaryDto> getTransactionSummaryPageByCreatorUsernameTypeAndDateFinished(String username,
+                                                                                                     List<TransactionType> txTypes,
+                                                                                                     ZonedDateTime afterDate,
+                                                                                                     ZonedDateTime beforeDate,
+                                                                                                     int pageNumber,
+                                                                                                     int pageSize) {
+        Account account = accountService.getAccountByUsername(username);
+        log.debug("Username: {}, txTypes: {}, afterDate: {}, beforeDate: {}. pageNumber: {}, pageSize: {}", username, txTypes, afterDate, beforeDate, pageNumber, pageSize);
+        Pageable pageable = PageRequest.of(pageNumber - 1, pageSize, TransactionQueryBuilder.NEWEST_FIRST);
+        Criteria criteria = TransactionQueryBuilder.ownedBy(account.getId())
+                .types(txTypes)
+                .finishedAfter(afterDate)
+                .finishedBefore(beforeDate)
+                .toCriteria();
+        mongoQueryExplainer.logQueryPlan("own transactions summary page", Transaction.class, Query.query(criteria).with(pageable));
+
+        // the totals are only computed for the documents of the page, after the match and sort used the index
+        AggregationOperation project = context -> new Document("$project", TransactionStatsService.itemTotals()
+                .append("username", 1)
+                .append("type", 1)
+                .append("dateFinished", 1)
+                .append("reversed", 1));
+        AggregationOperation averages = context -> new Document("$addFields", new Document()
+                .append("averageGoldPerCC", average("$goldPerCCSum", "$goldPerCCCount"))
+                .append("averageGoldPerPhp", average("$goldPerPhpSum", "$goldPerPhpCount")));
+        TypedAggregation<Transaction> aggregation = Aggregation.newAggregation(Transaction.class,
+                Aggregation.match(criteria),
+                Aggregation.sort(pageable.getSort()),
+                Aggregation.skip(pageable.getOffset()),
+                Aggregation.limit(pageable.getPageSize()),
+                project,
+                averages);
+        List<TransactionSummaryDto> transactions = mongoTemplate.aggregate(aggregation, TransactionSummaryDto.class).getMappedResults();
+        return PageableExecutionUtils.getPage(transactions, pageable,
+                () -> mongoTemplate.count(Query.query(criteria), Transaction.class));
+    }
+
+    private static Document average(String sum, String count) {
+        // Arrays.asList since the "then" branch is null, which List.of rejects
+        return new Document("$cond", Arrays.asList(new Document("$eq", List.of(count, 0)), null,
+                new Document("$divide", List.of(sum, count))));
+    }
+
+    public TransactionCursorPageDto getTransactionCursorPageByCreatorUsernameTypeAndDateFinished(String username,
+                                                                                                List<TransactionType> txTypes,
+                                                                                                ZonedDateTime afterDate,
+                                                                                                ZonedDateTime beforeDate,
+                                                                                                String cursor,
+                                                                                                int pageSize,
+                                                                                                boolean includeTotal) {
+        Account account = accountService.getAccountByUsername(username);
+        log.debug("Username: {}, txTypes: {}, afterDate: {}, beforeDate: {}. cursor: {}, pageSize: {}", username, txTypes, afterDate, beforeDate, cursor, pageSize);
+
+        Criteria criteria = TransactionQueryBuilder.ownedBy(account.getId())
+                .types(txTypes)
+                .finishedAfter(afterDate)
+                .finishedBefore(beforeDate)
+                .toCriteria();
+        Query query = Query.query(criteria);
+        if (cursor != null && !cursor.isBlank()) {
+            // seek past the last transaction of the previous page instead of skipping the previous pages
+            String[] position = decodeTransactionCursor(cursor);
+            ZonedDateTime lastDateFinished = ZonedDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(position[0])), ZoneOffset.UTC);
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("dateFinished").lt(lastDateFinished),
+                    Criteria.where("dateFinished").is(lastDateFinished).and("id").lt(position[1])));
+        }
+        // one extra transaction is fetched to know if there is a next page
+        query.with(TransactionQueryBuilder.NEWEST_FIRST).limit(pageSize + 1);
+        mongoQueryExplainer.logQueryPlan("own transactions cursor page", Transaction.class, query);
+
+        List<Transaction> transactions = new ArrayList<>(mongoTemplate.find(query, Transaction.class));
+        String nextCursor = null;
+        if (transactions.size() > pageSize) {
+            transactions = transactions.subList(0, pageSize);
+            Transaction last = transactions.get(pageSize - 1);
+            nextCursor = Utils.encodeCursor(String.valueOf(last.getDateFinished().toInstant().toEpochMilli()), last.getId());
+        }
+
+        Long totalTransactions = includeTotal ? mongoTemplate.count(Query.query(criteria), Transaction.class) : null;
+        return new TransactionCursorPageDto(transactions, nextCursor, pageSize, totalTransactions);
+    }
+
+    private String[] decodeTransactionCursor(String cursor) {
+        try {
+            String[] position = Utils.decodeCursor(cursor);
+            if (position.length != 2) throw new IllegalArgumentException("Invalid cursor length");
+            Long.parseLong(position[0]);
+            return position;
+        } catch (IllegalArgumentException ex) {
+            throw new ApiException("Invalid transaction page cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+
     public List<Transaction> getTransactionByCreatorUsernameAndDateBetween(String username, ZonedDateTime afterDate, ZonedDateTime beforeDate) {
         Account account = accountService.getAccountByUsername(username);
         return transactionRepository.findByCreatorIdAndDateFinishedBetween(account.getId(), afterDate, beforeDate);
     }
 
+    public long countTransactionByCreatorUsernameAndDateBetween(String username, ZonedDateTime afterDate, ZonedDateTime beforeDate) {
+        Account account = accountService.getAccountByUsername(username);
+        return mongoTemplate.count(TransactionQueryBuilder.ownedBy(account.getId())
+                .finishedAfter(afterDate)
+                .finishedBefore(beforeDate)
+                .toQuery(), Transaction.class);
+    }
+
+    // Backed by a Mongo cursor that fetches the documents in batches, the Stream must be closed after use
+    public Stream<Transaction> streamTransactionByCreatorUsernameTypeAndDateBetween(String username, List<TransactionType> txTypes, ZonedDateTime afterDate, ZonedDateTime beforeDate) {
+        Account account = accountService.getAccountByUsername(username);
+        Query query = TransactionQueryBuilder.ownedBy(account.getId())
+                .types(txTypes)
+                .finishedAfter(afterDate)
+                .finishedBefore(beforeDate)
+                .toQuery()
+                .cursorBatchSize(exportCursorBatchSize);
+        mongoQueryExplainer.logQueryPlan("own transactions export", Transaction.class, query);
+        return mongoTemplate.stream(query, Transaction.class);
+    }
+
+    public Stream<Transaction> streamTransactionByCreatorUsernameAndDateBetween(String username, ZonedDateTime afterDate, ZonedDateTime beforeDate) {
+        return streamTransactionByCreatorUsernameTypeAndDateBetween(username, List.of(), afterDate, beforeDate);
+    }
+
     public void validateTransaction(Transaction transaction) {
         Set<ConstraintViolation<Transaction>> violations = validator.validate(transaction);
         if (!violations.isEmpty()) {
@@ -151,110 +588,139 @@ public class TransactionService implements IExcelService<Transaction> {
 
     @Override
     public ByteArrayInputStream listToExcel(List<Transaction> transactions) {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            log.info("Iterating to each TransactionType");
-            for (TransactionType t : txTypes) {
-                log.info("Creating sheet for transaction type {}", t.name());
-                Sheet sheet = workbook.createSheet(t.name());
-                // Filter based on transaction type
-                List<Transaction> txList = transactions.stream().filter(tx -> tx.getType().name().equals(t.name())).toList();
-                List<String> allColumnNames = new ArrayList<>(baseTxColumnNames);
-                // Populating the column names based on transaction type
-                switch (t) {
-                    case CC2GOLD -> allColumnNames.addAll(ccToGoldTxColumnNames);
-                    case GOLD2PHP -> allColumnNames.addAll(goldToPhpTxColumnNames);
-                    case ITEM2GOLD -> allColumnNames.addAll(itemToGoldColumnNames);
-                }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        listToExcel(transactions, outputStream);
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
 
-                log.info("Transaction count to process: {}", txList.size());
+    @Override
+    public void listToExcel(List<Transaction> transactions, OutputStream outputStream) {
+        streamToExcel(transactions.stream(), outputStream);
+    }
+
+    @Override
+    public void streamToExcel(Stream<Transaction> transactions, OutputStream outputStream) {
+        long startNanos = System.nanoTime();
+        // SXSSF only keeps the last N rows of each sheet in memory, the rest are flushed into temp files
+        SXSSFWorkbook workbook = new SXSSFWorkbook(exportRowAccessWindow);
+        workbook.setCompressTempFiles(true);
+        try (workbook) {
+            Map<TransactionType, Sheet> sheets = new EnumMap<>(TransactionType.class);
+            Map<TransactionType, List<String>> sheetColumnNames = new EnumMap<>(TransactionType.class);
+            Map<TransactionType, Integer> sheetNextRows = new EnumMap<>(TransactionType.class);
 
-                int currRow = 0;
+            for (TransactionType t : txTypes) {
+                log.debug("Creating sheet for transaction type {}", t.name());
+                Sheet sheet = workbook.createSheet(t.name());
+                List<String> allColumnNames = getColumnNames(t);
 
                 // create header row
                 Row row = sheet.createRow(0);
                 for (int i = 0; i < allColumnNames.size(); i++) {
                     row.createCell(i).setCellValue(allColumnNames.get(i));
                 }
-                currRow++;
-
-                for (Transaction transaction : txList) {
-                    if (transaction.getTransactionItems() == null || transaction.getTransactionItems().isEmpty())
-                        continue;
-                    for (TransactionItem item : transaction.getTransactionItems()) {
-                        log.info("Transaction to process for type {}: {}", t.name(), transaction);
-
-                        log.info("Added basic transaction info into the Row");
-                        Row dataRow = sheet.createRow(currRow);
-
-                        dataRow.createCell(allColumnNames.indexOf("Transaction id")).setCellValue(transaction.getId());
-                        dataRow.createCell(allColumnNames.indexOf("Username")).setCellValue(transaction.getUsername());
-                        dataRow.createCell(allColumnNames.indexOf("Creator Username")).setCellValue(transaction.getCreator().getUsername());
-                        dataRow.createCell(allColumnNames.indexOf("Date finished")).setCellValue(DateTimeFormatter.ISO_ZONED_DATE_TIME.format(transaction.getDateFinished()));
-                        dataRow.createCell(allColumnNames.indexOf("Is Reversed")).setCellValue(transaction.isReversed());
-                        dataRow.createCell(allColumnNames.indexOf("Type")).setCellValue(transaction.getType().name());
-
-                        // insert file attachments
-                        log.info("Adding file attachment info into the Row");
-                        int startColumn = allColumnNames.size();
-                        if (transaction.getFileAttachments() != null && !transaction.getFileAttachments().isEmpty()) {
-                            for (FileAttachment f : transaction.getFileAttachments()) {
-                                dataRow.createCell(startColumn).setCellValue(f.getFileName());
-                                dataRow.createCell(startColumn + 1).setCellValue(f.getFileUrl());
-                                startColumn = startColumn + 2;
-                            }
-                        }
-
-                        // based on the type, we will add different data
-                        log.info("Adding transaction type specific data into the Row");
-                        switch (t) {
-                            case CC2GOLD:
-                                CcToGoldTransactionItem ccToGoldTxItem = new CcToGoldTransactionItem(item);
-                                dataRow.createCell(allColumnNames.indexOf("CC Amount")).setCellValue(ccToGoldTxItem.getCcAmount().doubleValue());
-                                dataRow.createCell(allColumnNames.indexOf("Gold per CC")).setCellValue(ccToGoldTxItem.getGoldPerCC());
-                                dataRow.createCell(allColumnNames.indexOf("Gold paid")).setCellValue(ccToGoldTxItem.getGoldPaid());
-                                break;
-                            case GOLD2PHP:
-                                GoldToPhpTransactionItem goldToPhpTxItem = new GoldToPhpTransactionItem(item);
-                                dataRow.createCell(allColumnNames.indexOf("Name")).setCellValue(goldToPhpTxItem.getName());
-                                dataRow.createCell(allColumnNames.indexOf("Php paid")).setCellValue(goldToPhpTxItem.getPhpPaid());
-                                dataRow.createCell(allColumnNames.indexOf("Gold per php")).setCellValue(goldToPhpTxItem.getGoldPerPhp());
-                                dataRow.createCell(allColumnNames.indexOf("Method of payment")).setCellValue(goldToPhpTxItem.getMethodOfPayment());
-                                break;
-                            case ITEM2GOLD:
-                                ItemToGoldTransactionItem itemToGoldTxItem = new ItemToGoldTransactionItem(item);
-                                log.info("ItemToGoldTxItem: {}", itemToGoldTxItem);
-                                dataRow.createCell(allColumnNames.indexOf("Item name")).setCellValue(itemToGoldTxItem.getItemName());
-                                dataRow.createCell(allColumnNames.indexOf("Item quantity")).setCellValue(itemToGoldTxItem.getItemQuantity());
-                                dataRow.createCell(allColumnNames.indexOf("Item price in gold")).setCellValue(itemToGoldTxItem.getItemPriceInGold());
-                                break;
-                        }
-
-                        currRow++;
-                    }
-//                 Making size of the column auto resize to fit data
-//                 log.info("Auto resizing the columns");
-//                 for (int i = 0; i < allColumnNames.size(); i++) {
-//                    sheet.autoSizeColumn(i+1);
-//                 }
 
-                }
+                sheets.put(t, sheet);
+                sheetColumnNames.put(t, allColumnNames);
+                sheetNextRows.put(t, 1);
             }
 
-            // Returning the byte array input stream from the Workbook
-            log.info("Writing contents of Workbook into OutputStream and passing it in InputStream");
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            // Single pass over the transactions, each one is routed to the sheet of its type
+            AtomicInteger transactionCount = new AtomicInteger();
+            transactions.forEachOrdered(transaction -> {
+                TransactionType t = transaction.getType();
+                if (t == null || !sheets.containsKey(t)) return;
+                int nextRow = writeTransactionRows(sheets.get(t), sheetColumnNames.get(t), transaction, sheetNextRows.get(t));
+                sheetNextRows.put(t, nextRow);
+                transactionCount.incrementAndGet();
+            });
+            log.info("Transaction count processed: {}", transactionCount.get());
+
+            // Writing the Workbook directly into the given OutputStream
             workbook.write(outputStream);
-            return new ByteArrayInputStream(outputStream.toByteArray());
+            // the header row of every sheet is not counted
+            transactionMetrics.recordExcelRows(TransactionMetrics.LIST_TO_EXCEL,
+                    sheetNextRows.values().stream().mapToLong(nextRow -> nextRow - 1).sum(), startNanos);
         } catch (IOException ex) {
             throw new ApiException("Something went wrong when converting transactions to excel file", HttpStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            // delete the temp files backing the flushed rows
+            workbook.dispose();
+        }
+    }
+
+    static List<String> getColumnNames(TransactionType t) {
+        List<String> allColumnNames = new ArrayList<>(baseTxColumnNames);
+        // Populating the column names based on transaction type
+        switch (t) {
+            case CC2GOLD -> allColumnNames.addAll(ccToGoldTxColumnNames);
+            case GOLD2PHP -> allColumnNames.addAll(goldToPhpTxColumnNames);
+            case ITEM2GOLD -> allColumnNames.addAll(itemToGoldColumnNames);
+        }
+        return allColumnNames;
+    }
+
+    // Writes one row per TransactionItem starting at currRow, returns the next free row of the sheet
+    private int writeTransactionRows(Sheet sheet, List<String> allColumnNames, Transaction transaction, int currRow) {
+        if (transaction.getTransactionItems() == null || transaction.getTransactionItems().isEmpty())
+            return currRow;
+        TransactionType t = transaction.getType();
+        for (TransactionItem item : transaction.getTransactionItems()) {
+            if (log.isDebugEnabled()) log.debug("Writing row {} for transaction {} item {}", currRow, transaction.getId(), item);
+            Row dataRow = sheet.createRow(currRow);
+
+            dataRow.createCell(allColumnNames.indexOf("Transaction id")).setCellValue(transaction.getId());
+            dataRow.createCell(allColumnNames.indexOf("Username")).setCellValue(transaction.getUsername());
+            dataRow.createCell(allColumnNames.indexOf("Creator Username")).setCellValue(transaction.getCreator().getUsername());
+            dataRow.createCell(allColumnNames.indexOf("Date finished")).setCellValue(DateTimeFormatter.ISO_ZONED_DATE_TIME.format(transaction.getDateFinished()));
+            dataRow.createCell(allColumnNames.indexOf("Is Reversed")).setCellValue(transaction.isReversed());
+            dataRow.createCell(allColumnNames.indexOf("Type")).setCellValue(transaction.getType().name());
+
+            // insert file attachments
+            int startColumn = allColumnNames.size();
+            if (transaction.getFileAttachments() != null && !transaction.getFileAttachments().isEmpty()) {
+                for (FileAttachment f : transaction.getFileAttachments()) {
+                    dataRow.createCell(startColumn).setCellValue(f.getFileName());
+                    dataRow.createCell(startColumn + 1).setCellValue(f.getFileUrl());
+                    startColumn = startColumn + 2;
+                }
+            }
+
+            // based on the type, we will add different data
+            switch (t) {
+                case CC2GOLD:
+                    CcToGoldTransactionItem ccToGoldTxItem = (CcToGoldTransactionItem) item;
+                    dataRow.createCell(allColumnNames.indexOf("CC Amount")).setCellValue(ccToGoldTxItem.getCcAmount().doubleValue());
+                    dataRow.createCell(allColumnNames.indexOf("Gold per CC")).setCellValue(ccToGoldTxItem.getGoldPerCC());
+                    dataRow.createCell(allColumnNames.indexOf("Gold paid")).setCellValue(ccToGoldTxItem.getGoldPaid());
+                    break;
+                case GOLD2PHP:
+                    GoldToPhpTransactionItem goldToPhpTxItem = (GoldToPhpTransactionItem) item;
+                    dataRow.createCell(allColumnNames.indexOf("Name")).setCellValue(goldToPhpTxItem.getName());
+                    dataRow.createCell(allColumnNames.indexOf("Php paid")).setCellValue(goldToPhpTxItem.getPhpPaid());
+                    dataRow.createCell(allColumnNames.indexOf("Gold per php")).setCellValue(goldToPhpTxItem.getGoldPerPhp());
+                    dataRow.createCell(allColumnNames.indexOf("Method of payment")).setCellValue(goldToPhpTxItem.getMethodOfPayment());
+                    break;
+                case ITEM2GOLD:
+                    ItemToGoldTransactionItem itemToGoldTxItem = (ItemToGoldTransactionItem) item;
+                    dataRow.createCell(allColumnNames.indexOf("Item name")).setCellValue(itemToGoldTxItem.getItemName());
+                    dataRow.createCell(allColumnNames.indexOf("Item quantity")).setCellValue(itemToGoldTxItem.getItemQuantity());
+                    dataRow.createCell(allColumnNames.indexOf("Item price in gold")).setCellValue(itemToGoldTxItem.getItemPriceInGold());
+                    break;
+            }
+
+            currRow++;
         }
+        return currRow;
     }
 
     @Override
     public List<Transaction> excelToList(MultipartFile file) {
         final String methodName = "excelToList";
-        log.info("Entering method {}", methodName);
+        log.debug("Entering method {}", methodName);
 
+        long startNanos = System.nanoTime();
+        long rows = 0;
         // placeholder for transactions
         Map<String, Transaction> transactionMap = new HashMap<>();
 
@@ -266,6 +732,7 @@ public class TransactionService implements IExcelService<Transaction> {
                 for (int i = 0; i < sheet.getPhysicalNumberOfRows(); i++) {
                     if(i == 0) continue; // HEADER, SKIP ROW
                     Row row = sheet.getRow(i);
+                    rows++;
 
                     // get id
                     String txId = row.getCell(allColumnNames.indexOf("Transaction id")).getStringCellValue();
@@ -282,9 +749,7 @@ public class TransactionService implements IExcelService<Transaction> {
                         boolean isReversed = row.getCell(allColumnNames.indexOf("Is Reversed")).getBooleanCellValue();
 
                         Transaction newTx = new Transaction();
-                        Account account = new Account();
-                        account.setUsername(creatorUsername);
-                        newTx.setCreator(account);
+                        newTx.setCreator(new TransactionCreator(null, creatorUsername));
                         newTx.setUsername(username);
                         newTx.setDateFinished(dateFinished);
                         newTx.setReversed(isReversed);
@@ -367,6 +832,7 @@ public class TransactionService implements IExcelService<Transaction> {
                     transaction.setFileAttachments(fileAttachments);
                 }
             }
+            transactionMetrics.recordExcelRows(TransactionMetrics.EXCEL_TO_LIST, rows, startNanos);
             return transactionMap.values().stream().toList();
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -374,28 +840,357 @@ public class TransactionService implements IExcelService<Transaction> {
         }
     }
 
-    @Transactional
-    public int addOrUpdate(List<Transaction> transactions, boolean overwrite) {
-        final int[] itemsAffected = {0};
-        for (Transaction tx : transactions) {
-            log.info("Transaction to add or update: {}", tx);
-            log.info("Tx id: {}", tx.getId());
-            transactionRepository.findById(tx.getId()).ifPresentOrElse(txDb -> {
-                // if present already in db and override is true, update
-                log.info("Updating the transaction from database");
-                if (overwrite) {
-                    if (!txDb.getCreator().getUsername().equals(tx.getCreator().getUsername())) {
-                        throw new ApiException("You can't update transactions from other users", HttpStatus.FORBIDDEN);
-                    }
-                    updateTransaction(txDb.getId(), tx);
-                    itemsAffected[0]++;
-                }
-            }, () -> {
-                log.info("Adding the transaction to the database");
-                createTransaction(tx);
-                itemsAffected[0]++;
+    @Override
+    public void excelToChunks(MultipartFile file, int chunkSize, Consumer<List<Transaction>> chunkConsumer) {
+        excelToChunks(file, chunkSize, null, failure -> log.warn("Skipped rows of the Excel file, {}", failure), chunkConsumer);
+    }
+
+    // A first pass sees every transaction of the file before the first chunk is handed over: when given,
+    // transactionCheck runs on each of them, so a file rejected by the check leaves nothing written, and the ids
+    // whose rows are not next to each other are collected. Their rows and the rows without an id are left out of
+    // the chunks and reported to rowFailureConsumer
+    private void excelToChunks(MultipartFile file, int chunkSize, Consumer<Transaction> transactionCheck,
+                               Consumer<String> rowFailureConsumer, Consumer<List<Transaction>> chunkConsumer) {
+        final String methodName = "excelToChunks";
+        log.debug("Entering method {}", methodName);
+
+        long startNanos = System.nanoTime();
+        // every row of the sheets is one transaction item
+        AtomicLong rows = new AtomicLong();
+        Consumer<List<Transaction>> countingConsumer = transactions -> {
+            transactions.forEach(tx -> rows.addAndGet(tx.getTransactionItems() != null ? tx.getTransactionItems().size() : 0));
+            chunkConsumer.accept(transactions);
+        };
+        Path tempFile = null;
+        try {
+            // copy the upload in a temp file so POI can read the zip entries without buffering the whole package
+            tempFile = Files.createTempFile("dntx-import-", ".xlsx");
+            try (InputStream inputStream = file.getInputStream()) {
+                Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            TransactionRowHandler scan = new TransactionRowHandler(chunkSize, Set.of(), failure -> {}, transactions -> {
+                if (transactionCheck != null) transactions.forEach(transactionCheck);
             });
+            readSheets(tempFile, scan);
+            readSheets(tempFile, new TransactionRowHandler(chunkSize, scan.getSplitIds(), rowFailureConsumer, countingConsumer));
+            transactionMetrics.recordExcelRows(TransactionMetrics.EXCEL_TO_LIST, rows.get(), startNanos);
+        } catch (ApiException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Failed to read the uploaded Excel file", ex);
+            throw new ApiException("Something went wrong when converting Excel file to Transactions", HttpStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ex) {
+                    log.warn("Failed to delete temp import file {}", tempFile);
+                }
+            }
+        }
+    }
+
+    // Each sheet is parsed as a stream of SAX events, only the rows of the current chunk are kept in memory
+    private void readSheets(Path excelFile, TransactionRowHandler rowHandler) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(excelFile.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheetStream = sheets.next()) {
+                    TransactionType t = TransactionType.getTransactionType(sheets.getSheetName());
+                    if (t == null) continue;
+                    log.debug("Reading sheet for transaction type {}", t.name());
+                    rowHandler.startSheet(t);
+
+                    XMLReader sheetParser = XMLHelper.newXMLReader();
+                    sheetParser.setContentHandler(new XSSFSheetXMLHandler(styles, sharedStrings, rowHandler, new RawNumberDataFormatter(), false));
+                    sheetParser.parse(new InputSource(sheetStream));
+                }
+            }
+            rowHandler.finish();
+        }
+    }
+
+    public BulkImportResultDto importExcel(MultipartFile file, String username, boolean overwrite) {
+        // the creator is resolved once for the whole upload
+        Account creator = accountService.getAccountByUsername(username);
+        BulkImportResultDto result = new BulkImportResultDto();
+        AtomicLong importedTransactions = new AtomicLong();
+        // check if all transactions are owned by the creator before any chunk is written
+        Consumer<Transaction> ownershipCheck = tx -> {
+            if (tx.getCreator() == null || !username.equals(tx.getCreator().getUsername()))
+                throw new ApiException("You can upload transactions from other creators", HttpStatus.FORBIDDEN);
+        };
+        excelToChunks(file, importChunkSize, ownershipCheck, result.getFailures()::add, transactions -> {
+            log.debug("Got a chunk of transactions from excel, size: {}", transactions.size());
+            result.merge(addOrUpdate(transactions, creator, overwrite));
+            importedTransactions.addAndGet(transactions.size());
+        });
+        transactionMetrics.recordImport(importedTransactions.get());
+        return result;
+    }
+
+    public BulkImportResultDto addOrUpdate(List<Transaction> transactions, Account creator, boolean overwrite) {
+        BulkImportResultDto result = writeImportBatch(transactions, creator, overwrite);
+        log.info("Import batch done, inserted: {}, updated: {}, skipped: {}, failures: {}",
+                result.getInserted(), result.getUpdated(), result.getSkipped(), result.getFailures().size());
+        return result;
+    }
+
+    private BulkImportResultDto writeImportBatch(List<Transaction> batch, Account creator, boolean overwrite) {
+        BulkImportResultDto result = new BulkImportResultDto();
+        result.setBatches(1);
+
+        // fetch the transactions that already exist with a single $in query,
+        // the whole documents are only needed to take the replaced transactions out of the rollups
+        List<String> ids = batch.stream().map(Transaction::getId).filter(Objects::nonNull).toList();
+        Query existingQuery = Query.query(Criteria.where("id").in(ids));
+        if (!overwrite) existingQuery.fields().include("id");
+        Map<String, Transaction> existingTransactions = new HashMap<>();
+        mongoTemplate.find(existingQuery, Transaction.class).forEach(tx -> existingTransactions.put(tx.getId(), tx));
+        Set<String> existingIds = existingTransactions.keySet();
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class);
+        List<Transaction> queuedTransactions = new ArrayList<>();
+        int queuedReplacements = 0;
+        for (Transaction tx : batch) {
+            boolean exists = tx.getId() != null && existingIds.contains(tx.getId());
+            if (exists && !overwrite) {
+                result.setSkipped(result.getSkipped() + 1);
+                continue;
+            }
+
+            try {
+                tx.setCreator(new TransactionCreator(creator));
+                tx.setDateFinished(tx.getDateFinished() != null ? tx.getDateFinished() : ZonedDateTime.now());
+                tx.setTransactionItems(Transaction.convertTransactionItems(tx));
+                tx.setFileAttachments(tx.getFileAttachments() != null ? tx.getFileAttachments() : new ArrayList<>());
+                validateTransaction(tx);
+            } catch (ConstraintViolationException | ApiException ex) {
+                result.getFailures().add(importFailure(tx, ex.getMessage()));
+                continue;
+            }
+
+            if (exists) {
+                Long previousVersion = existingTransactions.get(tx.getId()).getVersion();
+                tx.setVersion(previousVersion != null ? previousVersion + 1 : 1L);
+                // only replace the transactions owned by the creator
+                bulkOperations.replaceOne(Query.query(Criteria.where("id").is(tx.getId()).and("creator.id").is(creator.getId())), tx);
+                queuedReplacements++;
+            } else {
+                tx.setVersion(0L);
+                bulkOperations.insert(tx);
+            }
+            queuedTransactions.add(tx);
+        }
+
+        if (queuedTransactions.isEmpty()) return result;
+
+        BulkWriteResult writeResult = transactionRollupService.fenced(() -> {
+            Set<Integer> failedIndexes = new HashSet<>();
+            BulkWriteResult bulkResult;
+            try {
+                bulkResult = bulkOperations.execute();
+            } catch (BulkOperationException ex) {
+                // unordered bulk writes still apply the operations that did not fail
+                bulkResult = ex.getResult();
+                for (BulkWriteError error : ex.getErrors()) {
+                    failedIndexes.add(error.getIndex());
+                    result.getFailures().add(importFailure(queuedTransactions.get(error.getIndex()), error.getMessage()));
+                }
+            }
+            updateImportRollups(queuedTransactions, failedIndexes, existingTransactions, creator);
+            return bulkResult;
+        });
+        result.setInserted(writeResult.getInsertedCount());
+        result.setUpdated(writeResult.getMatchedCount());
+        if (writeResult.getMatchedCount() < queuedReplacements) {
+            result.getFailures().add((queuedReplacements - writeResult.getMatchedCount()) + " transactions were not updated since they belong to other users");
+        }
+        return result;
+    }
+
+    // rows of new transactions may come without an id, those can only be told apart by their customer and date
+    private String importFailure(Transaction tx, String message) {
+        String transaction = tx.getId() != null ? tx.getId() : "Transaction of " + tx.getUsername() + " finished " + tx.getDateFinished();
+        return transaction + ": " + message;
+    }
+
+    private void updateImportRollups(List<Transaction> queuedTransactions, Set<Integer> failedIndexes,
+                                     Map<String, Transaction> existingTransactions, Account creator) {
+        List<Transaction> removed = new ArrayList<>();
+        List<Transaction> added = new ArrayList<>();
+        for (int i = 0; i < queuedTransactions.size(); i++) {
+            if (failedIndexes.contains(i)) continue;
+            Transaction tx = queuedTransactions.get(i);
+            Transaction replaced = existingTransactions.get(tx.getId());
+            if (replaced != null) {
+                // replacements of transactions owned by other users did not match anything
+                if (replaced.getCreator() == null || !creator.getId().equals(replaced.getCreator().getId())) continue;
+                removed.add(replaced);
+            }
+            added.add(tx);
+        }
+        transactionRollupService.apply(removed, added);
+    }
+
+    // Builds Transactions out of the SAX row events of a sheet. Rows of the same transaction are expected to be
+    // next to each other, as written by the export, and completed transactions are handed over in chunks.
+    // An id that comes back after other rows is collected in splitIds, the rows of the skippedIds are left out
+    private class TransactionRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final int chunkSize;
+        private final Set<String> skippedIds;
+        private final Consumer<String> rowFailureConsumer;
+        private final Consumer<List<Transaction>> chunkConsumer;
+        private final Map<Integer, String> rowValues = new HashMap<>();
+        private final Set<String> completedIds = new HashSet<>();
+        private final Set<String> splitIds = new HashSet<>();
+        private final Set<String> reportedIds = new HashSet<>();
+        private List<Transaction> chunk = new ArrayList<>();
+        private List<String> allColumnNames;
+        private TransactionType sheetType;
+        private Transaction currentTransaction;
+        private int lastColumn;
+
+        TransactionRowHandler(int chunkSize, Set<String> skippedIds, Consumer<String> rowFailureConsumer,
+                              Consumer<List<Transaction>> chunkConsumer) {
+            this.chunkSize = chunkSize;
+            this.skippedIds = skippedIds;
+            this.rowFailureConsumer = rowFailureConsumer;
+            this.chunkConsumer = chunkConsumer;
+        }
+
+        Set<String> getSplitIds() {
+            return splitIds;
+        }
+
+        void startSheet(TransactionType t) {
+            completeCurrentTransaction();
+            sheetType = t;
+            allColumnNames = getColumnNames(t);
+        }
+
+        void finish() {
+            completeCurrentTransaction();
+            flushChunk();
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            rowValues.clear();
+            lastColumn = -1;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            rowValues.put(column, formattedValue);
+            lastColumn = Math.max(lastColumn, column);
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+            // not used
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0 || rowValues.isEmpty()) return; // HEADER OR EMPTY, SKIP ROW
+
+            String txId = getValue("Transaction id");
+            if (txId == null || txId.isBlank()) {
+                rowFailureConsumer.accept("Row " + (rowNum + 1) + " of sheet " + sheetType.name() + ": Transaction id must not be blank");
+                return;
+            }
+            if (skippedIds.contains(txId)) {
+                if (reportedIds.add(txId))
+                    rowFailureConsumer.accept(txId + ": The rows of the transaction are not next to each other, none of them were imported");
+                return;
+            }
+            if (currentTransaction == null || !currentTransaction.getId().equals(txId)) {
+                completeCurrentTransaction();
+                if (completedIds.contains(txId)) splitIds.add(txId);
+
+                // get common transaction info
+                Transaction newTx = new Transaction();
+                newTx.setCreator(new TransactionCreator(null, getValue("Creator Username")));
+                newTx.setUsername(getValue("Username"));
+                newTx.setDateFinished(ZonedDateTime.parse(getValue("Date finished"), DateTimeFormatter.ISO_ZONED_DATE_TIME).withZoneSameInstant(ZoneOffset.UTC));
+                newTx.setReversed(Boolean.parseBoolean(getValue("Is Reversed")));
+                newTx.setType(TransactionType.getTransactionType(getValue("Type")));
+                newTx.setId(txId);
+                newTx.setTransactionItems(new ArrayList<>());
+                newTx.setFileAttachments(new ArrayList<>());
+                currentTransaction = newTx;
+            }
+
+            // get transaction type specific information
+            switch (sheetType) {
+                case GOLD2PHP -> {
+                    GoldToPhpTransactionItem goldToPhpTransactionItem = new GoldToPhpTransactionItem();
+                    goldToPhpTransactionItem.setName(getValue("Name"));
+                    goldToPhpTransactionItem.setPhpPaid(Double.valueOf(getValue("Php paid")));
+                    goldToPhpTransactionItem.setGoldPerPhp(Double.valueOf(getValue("Gold per php")));
+                    goldToPhpTransactionItem.setMethodOfPayment(getValue("Method of payment"));
+                    currentTransaction.getTransactionItems().add(goldToPhpTransactionItem);
+                }
+                case ITEM2GOLD -> {
+                    ItemToGoldTransactionItem itemToGoldTransactionItem = new ItemToGoldTransactionItem();
+                    itemToGoldTransactionItem.setItemName(getValue("Item name"));
+                    itemToGoldTransactionItem.setItemQuantity(Double.valueOf(getValue("Item quantity")).longValue());
+                    itemToGoldTransactionItem.setItemPriceInGold(Double.valueOf(getValue("Item price in gold")));
+                    currentTransaction.getTransactionItems().add(itemToGoldTransactionItem);
+                }
+                case CC2GOLD -> {
+                    CcToGoldTransactionItem ccToGoldTransactionItem = new CcToGoldTransactionItem();
+                    ccToGoldTransactionItem.setCcAmount(new BigDecimal(getValue("CC Amount")));
+                    ccToGoldTransactionItem.setGoldPerCC(Double.valueOf(getValue("Gold per CC")));
+                    ccToGoldTransactionItem.setGoldPaid(Double.valueOf(getValue("Gold paid")));
+                    currentTransaction.getTransactionItems().add(ccToGoldTransactionItem);
+                }
+            }
+
+            // check file attachment info if it exists
+            if (!currentTransaction.getFileAttachments().isEmpty()) return;
+
+            // file attachments are written in name and url pairs after the transaction type specific columns
+            for (int j = allColumnNames.size(); j < lastColumn; j = j + 2) {
+                FileAttachment fileAttachment = new FileAttachment();
+                fileAttachment.setFileName(rowValues.get(j));
+                fileAttachment.setFileUrl(rowValues.get(j + 1));
+                currentTransaction.getFileAttachments().add(fileAttachment);
+            }
+        }
+
+        private String getValue(String columnName) {
+            return rowValues.get(allColumnNames.indexOf(columnName));
+        }
+
+        private void completeCurrentTransaction() {
+            if (currentTransaction == null) return;
+            completedIds.add(currentTransaction.getId());
+            chunk.add(currentTransaction);
+            currentTransaction = null;
+            if (chunk.size() >= chunkSize) flushChunk();
+        }
+
+        private void flushChunk() {
+            if (chunk.isEmpty()) return;
+            chunkConsumer.accept(chunk);
+            chunk = new ArrayList<>();
+        }
+    }
+
+    // Keeps numeric cells in their raw representation so the SAX import does not lose precision to display formats
+    private static class RawNumberDataFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            return NumberToTextConverter.toText(value);
         }
-        return itemsAffected[0];
     }
 }
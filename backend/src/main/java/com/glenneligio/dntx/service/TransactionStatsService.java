@@ -0,0 +1,213 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.dtos.TransactionStatsBucketDto;
+import com.glenneligio.dntx.dtos.TransactionStatsDto;
+import com.glenneligio.dntx.enums.TransactionStatsBucket;
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.exception.ApiException;
+import com.glenneligio.dntx.model.Account;
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.model.TransactionDailyRollup;
+import com.glenneligio.dntx.repository.TransactionQueryBuilder;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+
+@Service
+@Slf4j
+@Timed(value = "dntx.service", histogram = true)
+public class TransactionStatsService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+
+    // Serve UTC summaries over whole days from the transaction_daily_rollups collection once they are built
+    @Value("${dntx.stats.use-rollups:true}")
+    private boolean useRollups;
+
+    static final List<String> TOTAL_FIELDS = List.of("itemCount", "goldPaid", "ccAmount", "phpPaid", "itemGold",
+            "goldPerCCSum", "goldPerCCCount", "goldPerPhpSum", "goldPerPhpCount");
+
+    public TransactionStatsDto getTransactionStats(String username,
+                                                   List<TransactionType> txTypes,
+                                                   TransactionStatsBucket bucket,
+                                                   String timezone,
+                                                   ZonedDateTime afterDate,
+                                                   ZonedDateTime beforeDate) {
+        ZoneId zone = getZone(timezone);
+        Account account = accountService.getAccountByUsername(username);
+
+        String mongoTimezone = toMongoTimezone(zone);
+        List<Document> results = useRollups && isUtc(zone) && isStartOfUtcDay(afterDate) && isStartOfUtcDay(beforeDate)
+                && transactionRollupService.isBuilt()
+                ? aggregateRollups(account.getId(), txTypes, bucket, afterDate, beforeDate)
+                : aggregateTransactions(account.getId(), txTypes, bucket, mongoTimezone, afterDate, beforeDate);
+        List<TransactionStatsBucketDto> buckets = results.stream()
+                .map(result -> toBucketDto(result, zone))
+                .toList();
+        return new TransactionStatsDto(bucket.getCode(), zone.getId(), afterDate, beforeDate, buckets);
+    }
+
+    private List<Document> aggregateTransactions(String creatorId,
+                                                 List<TransactionType> txTypes,
+                                                 TransactionStatsBucket bucket,
+                                                 String mongoTimezone,
+                                                 ZonedDateTime afterDate,
+                                                 ZonedDateTime beforeDate) {
+        // reversed transactions are excluded, they were undone and do not count towards the flows
+        // the range is [afterDate, beforeDate) like on the rollups, so both paths return the same totals
+        Criteria criteria = TransactionQueryBuilder.ownedBy(creatorId)
+                .types(txTypes)
+                .finishedAfter(afterDate)
+                .finishedStrictlyBefore(beforeDate)
+                .toCriteria()
+                .and("reversed").is(false);
+
+        // every transaction is reduced to its bucket and item totals before grouping, so no document leaves the server
+        AggregationOperation project = context -> new Document("$project", itemTotals()
+                .append("type", 1)
+                .append("bucketStart", dateTrunc("$dateFinished", bucket, mongoTimezone)));
+        AggregationOperation group = context -> new Document("$group", sumTotals(new Document("type", "$type").append("bucketStart", "$bucketStart"))
+                .append("transactionCount", new Document("$sum", 1)));
+
+        TypedAggregation<Transaction> aggregation = Aggregation.newAggregation(Transaction.class,
+                Aggregation.match(criteria), project, group, sortByBucket());
+        return mongoTemplate.aggregate(aggregation, Document.class).getMappedResults();
+    }
+
+    // Reads the daily rollups instead of the transactions, only possible when the buckets and range are in whole UTC days
+    private List<Document> aggregateRollups(String creatorId,
+                                            List<TransactionType> txTypes,
+                                            TransactionStatsBucket bucket,
+                                            ZonedDateTime afterDate,
+                                            ZonedDateTime beforeDate) {
+        Criteria criteria = Criteria.where("creatorId").is(creatorId)
+                .and("transactionCount").gt(0);
+        if (txTypes != null && !txTypes.isEmpty()) criteria.and("type").in(txTypes);
+        if (afterDate != null || beforeDate != null) {
+            Criteria day = criteria.and("day");
+            if (afterDate != null) day.gte(afterDate);
+            // the rollup of the beforeDate day holds the whole day, so that day is left out
+            if (beforeDate != null) day.lt(beforeDate);
+        }
+
+        AggregationOperation group = context -> new Document("$group", sumTotals(new Document("type", "$type").append("bucketStart", dateTrunc("$day", bucket, "UTC")))
+                .append("transactionCount", new Document("$sum", "$transactionCount")));
+
+        TypedAggregation<TransactionDailyRollup> aggregation = Aggregation.newAggregation(TransactionDailyRollup.class,
+                Aggregation.match(criteria), group, sortByBucket());
+        return mongoTemplate.aggregate(aggregation, Document.class).getMappedResults();
+    }
+
+    // Totals of a single transaction computed from its items, named after the fields of TransactionDailyRollup
+    static Document itemTotals() {
+        return new Document("itemCount", new Document("$size", new Document("$ifNull", List.of("$transactionItems", List.of()))))
+                .append("goldPaid", new Document("$sum", "$transactionItems.goldPaid"))
+                // ccAmount is stored as a string
+                .append("ccAmount", new Document("$toDecimal", new Document("$sum", mapItems(new Document("$toDecimal", "$$this.ccAmount")))))
+                .append("phpPaid", new Document("$sum", "$transactionItems.phpPaid"))
+                .append("itemGold", new Document("$sum", mapItems(new Document("$multiply", List.of("$$this.itemQuantity", "$$this.itemPriceInGold")))))
+                .append("goldPerCCSum", new Document("$sum", "$transactionItems.goldPerCC"))
+                .append("goldPerCCCount", new Document("$size", new Document("$ifNull", List.of("$transactionItems.goldPerCC", List.of()))))
+                .append("goldPerPhpSum", new Document("$sum", "$transactionItems.goldPerPhp"))
+                .append("goldPerPhpCount", new Document("$size", new Document("$ifNull", List.of("$transactionItems.goldPerPhp", List.of()))));
+    }
+
+    // $group stage body summing the fields produced by itemTotals()
+    static Document sumTotals(Object id) {
+        Document group = new Document("_id", id);
+        TOTAL_FIELDS.forEach(field -> group.append(field, new Document("$sum", "$" + field)));
+        return group;
+    }
+
+    private static Document mapItems(Document in) {
+        return new Document("$map", new Document("input", new Document("$ifNull", List.of("$transactionItems", List.of())))
+                .append("in", in));
+    }
+
+    private static Document dateTrunc(String date, TransactionStatsBucket bucket, String timezone) {
+        return new Document("$dateTrunc", new Document("date", date)
+                .append("unit", bucket.getCode())
+                .append("timezone", timezone)
+                .append("startOfWeek", "monday"));
+    }
+
+    private AggregationOperation sortByBucket() {
+        return context -> new Document("$sort", new Document("_id.bucketStart", 1).append("_id.type", 1));
+    }
+
+    private boolean isUtc(ZoneId zone) {
+        return zone.normalized().equals(ZoneOffset.UTC);
+    }
+
+    private boolean isStartOfUtcDay(ZonedDateTime date) {
+        return date == null || date.withZoneSameInstant(ZoneOffset.UTC).toLocalTime().equals(LocalTime.MIDNIGHT);
+    }
+
+    private TransactionStatsBucketDto toBucketDto(Document result, ZoneId zone) {
+        Document id = result.get("_id", Document.class);
+        TransactionStatsBucketDto dto = new TransactionStatsBucketDto();
+        dto.setType(TransactionType.getTransactionType(id.getString("type")));
+        dto.setBucketStart(ZonedDateTime.ofInstant(id.get("bucketStart", Date.class).toInstant(), zone));
+        dto.setTransactionCount(toBigDecimal(result.get("transactionCount")).longValue());
+        dto.setItemCount(toBigDecimal(result.get("itemCount")).longValue());
+        dto.setGoldPaid(toBigDecimal(result.get("goldPaid")).doubleValue());
+        dto.setCcAmount(toBigDecimal(result.get("ccAmount")));
+        dto.setPhpPaid(toBigDecimal(result.get("phpPaid")).doubleValue());
+        dto.setItemGold(toBigDecimal(result.get("itemGold")).doubleValue());
+        dto.setAverageGoldPerCC(average(result.get("goldPerCCSum"), result.get("goldPerCCCount")));
+        dto.setAverageGoldPerPhp(average(result.get("goldPerPhpSum"), result.get("goldPerPhpCount")));
+        return dto;
+    }
+
+    private Double average(Object sum, Object count) {
+        long total = toBigDecimal(count).longValue();
+        return total == 0 ? null : toBigDecimal(sum).doubleValue() / total;
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        if (value instanceof Decimal128 decimal) return decimal.bigDecimalValue();
+        if (value instanceof Double || value instanceof Float) return BigDecimal.valueOf(((Number) value).doubleValue());
+        if (value instanceof Number number) return BigDecimal.valueOf(number.longValue());
+        return BigDecimal.ZERO;
+    }
+
+    private ZoneId getZone(String timezone) {
+        try {
+            return ZoneId.of(timezone);
+        } catch (DateTimeException ex) {
+            throw new ApiException("Invalid timezone " + timezone, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Mongo accepts Olson identifiers and +/-hh:mm offsets, but not the "Z" id of ZoneOffset.UTC
+    private String toMongoTimezone(ZoneId zone) {
+        if (zone instanceof ZoneOffset offset) {
+            return offset.equals(ZoneOffset.UTC) ? "UTC" : offset.getId();
+        }
+        return zone.getId();
+    }
+}
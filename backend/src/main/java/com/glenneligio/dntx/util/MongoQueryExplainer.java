@@ -0,0 +1,64 @@
+package com.glenneligio.dntx.util;
+
+import com.mongodb.client.FindIterable;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Slf4j
+public class MongoQueryExplainer {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Explain the dynamic queries before running them and log the winning plan, only honoured when DEBUG is enabled
+    @Value("${dntx.mongodb.explain-queries:false}")
+    private boolean explainQueries;
+
+    public Document explain(Class<?> entityClass, Query query) {
+        // map the query the same way MongoTemplate does, so the explained shape is the one sent at runtime
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(entityClass);
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+
+        FindIterable<Document> find = mongoTemplate.getCollection(mongoTemplate.getCollectionName(entityClass))
+                .find(filter)
+                .sort(sort);
+        if (query.getSkip() > 0) find.skip((int) query.getSkip());
+        if (query.getLimit() > 0) find.limit(query.getLimit());
+        return find.explain();
+    }
+
+    public void logQueryPlan(String name, Class<?> entityClass, Query query) {
+        if (!explainQueries || !log.isDebugEnabled()) return;
+        try {
+            Document queryPlanner = explain(entityClass, query).get("queryPlanner", Document.class);
+            log.debug("Query '{}' on {}, parsed query: {}, winning plan: {}", name, entityClass.getSimpleName(),
+                    queryPlanner.get("parsedQuery", Document.class).toJson(),
+                    queryPlanner.get("winningPlan", Document.class).toJson());
+        } catch (Exception ex) {
+            log.debug("Failed to explain query '{}' on {}", name, entityClass.getSimpleName(), ex);
+        }
+    }
+
+    public static boolean hasCollectionScan(Object plan) {
+        if (plan instanceof Document document) {
+            if ("COLLSCAN".equals(document.get("stage"))) return true;
+            return document.values().stream().anyMatch(MongoQueryExplainer::hasCollectionScan);
+        }
+        if (plan instanceof List<?> list) {
+            return list.stream().anyMatch(MongoQueryExplainer::hasCollectionScan);
+        }
+        return false;
+    }
+}
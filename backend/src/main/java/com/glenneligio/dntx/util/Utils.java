@@ -1,11 +1,19 @@
 package com.glenneligio.dntx.util;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.glenneligio.dntx.exception.ApiException;
+import org.bson.types.ObjectId;
+import org.springframework.http.HttpStatus;
 
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -14,6 +22,7 @@ import java.security.spec.InvalidKeySpecException;
 import java.security.spec.KeySpec;
 import java.util.Base64;
 import java.util.Map;
+import java.util.stream.Stream;
 
 
 public class Utils {
@@ -61,6 +70,41 @@ public class Utils {
         return bytesToString(hash);
     }
 
+    // Opaque, url safe continuation token made of the given values
+    public static String encodeCursor(String... values) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(stringToBytes(String.join("|", values)));
+    }
+
+    public static String[] decodeCursor(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+    }
+
+    // Cursor holding only the ObjectId of the last document of the previous page
+    public static String decodeIdCursor(String cursor) {
+        try {
+            String[] position = decodeCursor(cursor);
+            if (position.length != 1 || !ObjectId.isValid(position[0])) throw new IllegalArgumentException("Invalid cursor");
+            return position[0];
+        } catch (IllegalArgumentException ex) {
+            throw new ApiException("Invalid page cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Writes every value on its own line as it comes off the stream, nothing but the current value is held in memory
+    public static <T> void writeNdjson(ObjectMapper objectMapper, Stream<T> values, OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator((String) null);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            // the response stream is closed by the container
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (T value : (Iterable<T>) values::iterator) {
+                writer.writeValue(generator, value);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
     public static ObjectNode createObjectNodeFromMap(Map<String, Object> attributeMap) throws JsonProcessingException {
         ObjectMapper mapper = new ObjectMapper();
         ObjectNode objectNode = mapper.createObjectNode();
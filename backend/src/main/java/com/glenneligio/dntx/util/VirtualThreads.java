@@ -0,0 +1,50 @@
+package com.glenneligio.dntx.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/*
+ * The app is built for Java 17, which has no virtual threads, so they are looked up reflectively.
+ * On Java 21 (or 19/20 with --enable-preview) the factories below create virtual threads, elsewhere isAvailable() is false.
+ */
+public class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    public static boolean isAvailable() {
+        try {
+            threadFactory("virtual-check-");
+            return true;
+        } catch (UnsupportedOperationException ex) {
+            return false;
+        }
+    }
+
+    // Thread.ofVirtual().name(prefix, 0).factory()
+    public static ThreadFactory threadFactory(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException ex) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21", ex);
+        } catch (InvocationTargetException ex) {
+            // preview releases throw when started without --enable-preview
+            throw new UnsupportedOperationException("Virtual threads are not enabled", ex.getCause());
+        }
+    }
+
+    // Executors.newThreadPerTaskExecutor(threadFactory(namePrefix)), every task gets its own virtual thread
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory threadFactory = threadFactory(namePrefix);
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21", ex);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.glenneligio.dntx;
+
+import com.glenneligio.dntx.enums.AccountType;
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.model.*;
+import com.glenneligio.dntx.repository.TransactionRepository;
+import com.glenneligio.dntx.service.AccountService;
+import com.glenneligio.dntx.service.TransactionMetrics;
+import com.glenneligio.dntx.service.TransactionRollupService;
+import com.glenneligio.dntx.service.TransactionService;
+import com.glenneligio.dntx.util.MongoQueryExplainer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Accounts, transactions and services shared by the unit tests
+public final class TestFixtures {
+
+    private TestFixtures() {}
+
+    public static Account account(String username) {
+        Account account = new Account();
+        account.setId(new ObjectId().toHexString());
+        account.setUsername(username);
+        account.setEmail(username + "@dntx.com");
+        account.setFullName("Test " + username);
+        account.setAccountType(AccountType.USER);
+        account.setDateRegistered(ZonedDateTime.now(ZoneOffset.UTC).minusYears(1));
+        return account;
+    }
+
+    // A valid CC2GOLD transaction of the creator with a single item
+    public static Transaction transaction(String id, Account creator) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setUsername("Juan Dela Cruz");
+        transaction.setCreator(new TransactionCreator(creator));
+        transaction.setType(TransactionType.CC2GOLD);
+        transaction.setDateFinished(ZonedDateTime.of(2023, 4, 15, 10, 30, 0, 0, ZoneOffset.UTC));
+        transaction.setFileAttachments(new ArrayList<>());
+        List<TransactionItem> items = new ArrayList<>();
+        items.add(new CcToGoldTransactionItem(BigDecimal.valueOf(1000), 0.8, 800.0));
+        transaction.setTransactionItems(items);
+        return transaction;
+    }
+
+    // TransactionService without the Spring context, Mongo and the other services are the given mocks
+    public static TransactionService transactionService(MongoTemplate mongoTemplate,
+                                                        AccountService accountService,
+                                                        TransactionRollupService transactionRollupService) {
+        return transactionService(null, mongoTemplate, accountService, transactionRollupService, 500, 500);
+    }
+
+    // same with the repository and the import chunk and batch create limits of the test
+    public static TransactionService transactionService(TransactionRepository transactionRepository,
+                                                        MongoTemplate mongoTemplate,
+                                                        AccountService accountService,
+                                                        TransactionRollupService transactionRollupService,
+                                                        int importChunkSize,
+                                                        int batchCreateMaxSize) {
+        return new TransactionService(transactionRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                accountService,
+                mongoTemplate,
+                transactionRollupService,
+                new MongoQueryExplainer(),
+                new TransactionMetrics(new SimpleMeterRegistry()),
+                100,
+                500,
+                importChunkSize,
+                batchCreateMaxSize);
+    }
+}
@@ -0,0 +1,48 @@
+package com.glenneligio.dntx.controller;
+
+import com.glenneligio.dntx.dtos.BatchCreateResultDto;
+import com.glenneligio.dntx.dtos.CreateUpdateTransactionDto;
+import com.glenneligio.dntx.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionControllerTests {
+
+    @Mock
+    private TransactionService service;
+    @InjectMocks
+    private TransactionController transactionController;
+
+    @Test
+    void batchIsCreatedWhenEveryItemWasCreated() {
+        List<CreateUpdateTransactionDto> dtos = List.of(new CreateUpdateTransactionDto());
+        when(service.createTransactions(dtos, null)).thenReturn(new BatchCreateResultDto(1, 0, new ArrayList<>()));
+
+        ResponseEntity<BatchCreateResultDto> response = transactionController.createTransactions(dtos);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    void batchWithFailedItemsIsMultiStatus() {
+        List<CreateUpdateTransactionDto> dtos = List.of(new CreateUpdateTransactionDto(), new CreateUpdateTransactionDto());
+        when(service.createTransactions(dtos, null)).thenReturn(new BatchCreateResultDto(1, 1, new ArrayList<>()));
+
+        ResponseEntity<BatchCreateResultDto> response = transactionController.createTransactions(dtos);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.MULTI_STATUS);
+        assertThat(response.getBody().getFailed()).isEqualTo(1);
+    }
+}
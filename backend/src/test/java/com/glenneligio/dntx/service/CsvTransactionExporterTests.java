@@ -0,0 +1,99 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.TestFixtures;
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.model.Account;
+import com.glenneligio.dntx.model.FileAttachment;
+import com.glenneligio.dntx.model.GoldToPhpTransactionItem;
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.model.TransactionItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvTransactionExporterTests {
+
+    private CsvTransactionExporter csvTransactionExporter;
+    private Account creator;
+
+    @BeforeEach
+    void setUp() {
+        csvTransactionExporter = new CsvTransactionExporter();
+        creator = TestFixtures.account("trader");
+    }
+
+    @Test
+    void everyTypeGetsAnEntryWithTheExcelColumnsAndARowPerItem() throws IOException {
+        Transaction ccToGold = TestFixtures.transaction("tx-1", creator);
+        ccToGold.getTransactionItems().add(TestFixtures.transaction("tx-1", creator).getTransactionItems().get(0));
+        ccToGold.setFileAttachments(new ArrayList<>(List.of(new FileAttachment("receipt.png", "https://files.dntx.com/receipt.png"))));
+        Map<TransactionType, List<Transaction>> byType = Map.of(TransactionType.CC2GOLD, List.of(ccToGold));
+
+        Map<String, String> entries = export(types -> types.stream().flatMap(t -> byType.getOrDefault(t, List.of()).stream()));
+
+        assertThat(entries.keySet()).containsExactly("CC2GOLD.csv", "GOLD2PHP.csv", "ITEM2GOLD.csv");
+        String row = "tx-1,Juan Dela Cruz,trader,2023-04-15T10:30:00Z,false,CC2GOLD,1000,0.8,800.0,receipt.png,https://files.dntx.com/receipt.png\r\n";
+        assertThat(entries.get("CC2GOLD.csv")).isEqualTo(
+                String.join(",", TransactionService.getColumnNames(TransactionType.CC2GOLD)) + "\r\n" + row + row);
+        // types without transactions still get their header
+        assertThat(entries.get("ITEM2GOLD.csv")).isEqualTo(
+                String.join(",", TransactionService.getColumnNames(TransactionType.ITEM2GOLD)) + "\r\n");
+    }
+
+    @Test
+    void fieldsWithSeparatorsQuotesOrLineBreaksAreQuoted() throws IOException {
+        Transaction goldToPhp = TestFixtures.transaction("tx-1", creator);
+        goldToPhp.setType(TransactionType.GOLD2PHP);
+        goldToPhp.setUsername("Dela Cruz, Juan");
+        List<TransactionItem> items = new ArrayList<>();
+        items.add(new GoldToPhpTransactionItem("The \"Gold\" Shop", 500.0, 2.0, "GCash\nBank"));
+        goldToPhp.setTransactionItems(items);
+
+        Map<String, String> entries = export(types -> types.contains(TransactionType.GOLD2PHP) ? Stream.of(goldToPhp) : Stream.empty());
+
+        assertThat(entries.get("GOLD2PHP.csv")).endsWith(
+                "\r\ntx-1,\"Dela Cruz, Juan\",trader,2023-04-15T10:30:00Z,false,GOLD2PHP,\"The \"\"Gold\"\" Shop\",500.0,2.0,\"GCash\nBank\"\r\n");
+    }
+
+    @Test
+    void everyOpenedStreamIsClosed() throws IOException {
+        AtomicInteger opened = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+
+        export(types -> {
+            opened.incrementAndGet();
+            // one type per stream, so the zip entries can be written one after the other
+            assertThat(types).hasSize(1);
+            return Stream.of(TestFixtures.transaction("tx-" + types.get(0), creator)).onClose(closed::incrementAndGet);
+        });
+
+        assertThat(opened.get()).isEqualTo(TransactionType.values().length);
+        assertThat(closed.get()).isEqualTo(opened.get());
+    }
+
+    private Map<String, String> export(ITransactionExporter.TransactionSource source) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        csvTransactionExporter.export(source, outputStream);
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(outputStream.toByteArray()), StandardCharsets.UTF_8)) {
+            for (ZipEntry entry = zipInputStream.getNextEntry(); entry != null; entry = zipInputStream.getNextEntry()) {
+                entries.put(entry.getName(), new String(zipInputStream.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,213 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.enums.EmailOutboxStatus;
+import com.glenneligio.dntx.model.EmailOutboxMessage;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.context.junit.jupiter.EnabledIf;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the outbox against a real Mongo and an in-process SMTP server, dispatch() is called by the tests
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=outbox@dntx.test",
+        "spring.mail.password=secret",
+        "spring.mail.properties.mail.smtp.auth=true",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "spring.mail.properties.mail.smtp.starttls.required=false",
+        "spring.mail.properties.mail.smtp.connectiontimeout=2000",
+        "spring.mail.properties.mail.smtp.timeout=2000",
+        "dntx.mail.outbox.poll-interval-ms=3600000",
+        "dntx.mail.outbox.max-attempts=3",
+        "dntx.mail.outbox.initial-backoff-ms=500",
+        "dntx.mail.outbox.max-backoff-ms=60000",
+        "dntx.mail.outbox.lease-ms=60000"
+})
+@EnabledIf(expression = "#{environment['spring.profiles.active'] == 'test'}", loadContext = true)
+class EmailOutboxServiceTests {
+
+    private static final String RECIPIENT_DOMAIN = "@outbox-recipient.test";
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("outbox@dntx.test", "secret"))
+            .withPerMethodLifecycle(true);
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void removeTestMessages() {
+        mongoTemplate.remove(Query.query(Criteria.where("to").regex(".*" + RECIPIENT_DOMAIN.replace(".", "\\.") + "$")), EmailOutboxMessage.class);
+    }
+
+    @Test
+    void dispatchClaimsAndSendsDueMessages() throws Exception {
+        EmailOutboxMessage message = emailOutboxService.enqueue("first" + RECIPIENT_DOMAIN, "Subject", "Body");
+
+        emailOutboxService.dispatch();
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertThat(received.getSubject()).isEqualTo("Subject");
+        EmailOutboxMessage sent = awaitStatus(message.getId(), EmailOutboxStatus.SENT);
+        assertThat(sent.getAttempts()).isEqualTo(1);
+        assertThat(sent.getSentAt()).isNotNull();
+        assertThat(sent.getLeaseExpiresAt()).isNull();
+        assertThat(sent.getBody()).isNull();
+    }
+
+    @Test
+    void failedSendIsRetriedAfterItsBackoff() throws Exception {
+        EmailOutboxMessage message = emailOutboxService.enqueue("retry" + RECIPIENT_DOMAIN, "Retried", "Body");
+        greenMail.stop();
+
+        ZonedDateTime beforeFirstAttempt = ZonedDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        emailOutboxService.dispatch();
+        EmailOutboxMessage failed = awaitAttempt(message.getId(), 1);
+        assertThat(failed.getStatus()).isEqualTo(EmailOutboxStatus.PENDING);
+        assertThat(failed.getLastError()).isNotBlank();
+        // still needed for the retry
+        assertThat(failed.getBody()).isEqualTo("Body");
+        assertThat(failed.getNextAttemptAt()).isAfterOrEqualTo(beforeFirstAttempt.plus(Duration.ofMillis(500)));
+
+        // not due yet, the message stays where it is
+        emailOutboxService.dispatch();
+        assertThat(findMessage(message.getId()).getAttempts()).isEqualTo(1);
+
+        greenMail.start();
+        waitUntil(failed.getNextAttemptAt());
+        emailOutboxService.dispatch();
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        EmailOutboxMessage sent = awaitStatus(message.getId(), EmailOutboxStatus.SENT);
+        assertThat(sent.getAttempts()).isEqualTo(2);
+        assertThat(sent.getLastError()).isNull();
+    }
+
+    @Test
+    void backoffDoublesUntilTheMessageIsGivenUp() throws Exception {
+        EmailOutboxMessage message = emailOutboxService.enqueue("backoff" + RECIPIENT_DOMAIN, "Given up", "Body");
+        greenMail.stop();
+
+        ZonedDateTime beforeFirstAttempt = ZonedDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        emailOutboxService.dispatch();
+        EmailOutboxMessage firstFailure = awaitAttempt(message.getId(), 1);
+        assertThat(firstFailure.getNextAttemptAt()).isBetween(beforeFirstAttempt.plus(Duration.ofMillis(500)), ZonedDateTime.now().plus(Duration.ofMillis(500)));
+
+        waitUntil(firstFailure.getNextAttemptAt());
+        ZonedDateTime beforeSecondAttempt = ZonedDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        emailOutboxService.dispatch();
+        EmailOutboxMessage secondFailure = awaitAttempt(message.getId(), 2);
+        assertThat(secondFailure.getStatus()).isEqualTo(EmailOutboxStatus.PENDING);
+        assertThat(secondFailure.getNextAttemptAt()).isBetween(beforeSecondAttempt.plus(Duration.ofMillis(1000)), ZonedDateTime.now().plus(Duration.ofMillis(1000)));
+
+        waitUntil(secondFailure.getNextAttemptAt());
+        emailOutboxService.dispatch();
+        EmailOutboxMessage givenUp = awaitStatus(message.getId(), EmailOutboxStatus.FAILED);
+        assertThat(givenUp.getAttempts()).isEqualTo(3);
+        assertThat(givenUp.getBody()).isNull();
+        greenMail.start();
+    }
+
+    @Test
+    void expiredLeaseIsClaimedAgain() throws Exception {
+        EmailOutboxMessage expired = insertSending("expired" + RECIPIENT_DOMAIN, ZonedDateTime.now().minusMinutes(1));
+        EmailOutboxMessage leased = insertSending("leased" + RECIPIENT_DOMAIN, ZonedDateTime.now().plusMinutes(10));
+
+        emailOutboxService.dispatch();
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        EmailOutboxMessage sent = awaitStatus(expired.getId(), EmailOutboxStatus.SENT);
+        assertThat(sent.getAttempts()).isEqualTo(2);
+        // the dispatcher holding the lease may still send it
+        EmailOutboxMessage stillLeased = findMessage(leased.getId());
+        assertThat(stillLeased.getStatus()).isEqualTo(EmailOutboxStatus.SENDING);
+        assertThat(stillLeased.getAttempts()).isEqualTo(1);
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+    }
+
+    @Test
+    void dispatcherWhoseLeaseExpiredDoesNotOverwriteTheNewClaim() throws Exception {
+        EmailOutboxMessage stale = insertSending("stale" + RECIPIENT_DOMAIN, ZonedDateTime.now().minusMinutes(1));
+
+        emailOutboxService.dispatch();
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        awaitStatus(stale.getId(), EmailOutboxStatus.SENT);
+
+        // the first dispatcher reports its attempt late
+        ReflectionTestUtils.invokeMethod(emailOutboxService, "markFailed", stale, new MailSendException("Timed out"));
+
+        EmailOutboxMessage sent = findMessage(stale.getId());
+        assertThat(sent.getStatus()).isEqualTo(EmailOutboxStatus.SENT);
+        assertThat(sent.getAttempts()).isEqualTo(2);
+        assertThat(sent.getLastError()).isNull();
+    }
+
+    private EmailOutboxMessage insertSending(String to, ZonedDateTime leaseExpiresAt) {
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setTo(to);
+        message.setSubject("Leased");
+        message.setBody("Body");
+        message.setStatus(EmailOutboxStatus.SENDING);
+        message.setAttempts(1);
+        message.setCreatedAt(ZonedDateTime.now().minusMinutes(10));
+        message.setNextAttemptAt(ZonedDateTime.now().minusMinutes(10));
+        message.setLeaseExpiresAt(leaseExpiresAt);
+        return mongoTemplate.insert(message);
+    }
+
+    private EmailOutboxMessage findMessage(String id) {
+        return mongoTemplate.findById(id, EmailOutboxMessage.class);
+    }
+
+    // the batches are sent on the emailOutboxExecutor, so the outcome is polled
+    private EmailOutboxMessage awaitStatus(String id, EmailOutboxStatus status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        EmailOutboxMessage message = findMessage(id);
+        while (message.getStatus() != status && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            message = findMessage(id);
+        }
+        assertThat(message.getStatus()).isEqualTo(status);
+        return message;
+    }
+
+    // waits until the failed attempt was recorded and the message is no longer claimed
+    private EmailOutboxMessage awaitAttempt(String id, int attempts) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        EmailOutboxMessage message = findMessage(id);
+        while ((message.getAttempts() != attempts || message.getStatus() == EmailOutboxStatus.SENDING) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            message = findMessage(id);
+        }
+        assertThat(message.getAttempts()).isEqualTo(attempts);
+        assertThat(message.getStatus()).isNotEqualTo(EmailOutboxStatus.SENDING);
+        return message;
+    }
+
+    private void waitUntil(ZonedDateTime time) throws InterruptedException {
+        long millis = Duration.between(ZonedDateTime.now(), time).toMillis();
+        if (millis > 0) Thread.sleep(millis + 50);
+    }
+}
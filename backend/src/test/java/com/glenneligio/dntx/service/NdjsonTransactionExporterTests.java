@@ -0,0 +1,85 @@
+package com.glenneligio.dntx.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glenneligio.dntx.TestFixtures;
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.model.Account;
+import com.glenneligio.dntx.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NdjsonTransactionExporterTests {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private NdjsonTransactionExporter ndjsonTransactionExporter;
+    private Account creator;
+
+    @BeforeEach
+    void setUp() {
+        ndjsonTransactionExporter = new NdjsonTransactionExporter();
+        ReflectionTestUtils.setField(ndjsonTransactionExporter, "objectMapper", objectMapper);
+        creator = TestFixtures.account("trader");
+    }
+
+    @Test
+    void everyTransactionIsAGzippedLineOfJson() throws IOException {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            transactions.add(TestFixtures.transaction("tx-" + i, creator));
+        }
+        List<TransactionType> requestedTypes = new ArrayList<>();
+        AtomicBoolean closed = new AtomicBoolean();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ndjsonTransactionExporter.export(types -> {
+            requestedTypes.addAll(types);
+            return transactions.stream().onClose(() -> closed.set(true));
+        }, outputStream);
+
+        String ndjson = gunzip(outputStream.toByteArray());
+        assertThat(ndjson).endsWith("\n");
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(3);
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode transaction = objectMapper.readTree(lines[i]);
+            assertThat(transaction.get("id").asText()).isEqualTo("tx-" + i);
+            assertThat(transaction.get("type").asText()).isEqualTo("CC2GOLD");
+            assertThat(transaction.get("transactionItems")).hasSize(1);
+            // same representation as the JSON API, the creator is never serialized
+            assertThat(transaction.has("creator")).isFalse();
+        }
+        assertThat(requestedTypes).containsExactly(TransactionType.values());
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void emptyExportIsAValidEmptyGzip() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        ndjsonTransactionExporter.export(types -> Stream.empty(), outputStream);
+
+        assertThat(gunzip(outputStream.toByteArray())).isEmpty();
+    }
+
+    private String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(gzipInputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
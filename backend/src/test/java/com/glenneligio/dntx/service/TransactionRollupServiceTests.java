@@ -0,0 +1,186 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.TestFixtures;
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.model.Account;
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.model.TransactionDailyRollup;
+import com.glenneligio.dntx.model.TransactionRollupState;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionRollupServiceTests {
+
+    private static final ZonedDateTime DAY = ZonedDateTime.of(2023, 4, 15, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private TransactionRollupService transactionRollupService;
+    private Account creator;
+
+    @BeforeEach
+    void setUp() {
+        transactionRollupService = new TransactionRollupService();
+        ReflectionTestUtils.setField(transactionRollupService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(transactionRollupService, "useRollups", true);
+        creator = TestFixtures.account("trader");
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionDailyRollup.class)).thenReturn(bulkOperations);
+    }
+
+    @Test
+    void createdTransactionIsAddedToTheRollupOfItsUtcDay() {
+        Transaction transaction = TestFixtures.transaction("tx-1", creator);
+        // 02:00 in Manila is still the 15th in UTC
+        transaction.setDateFinished(ZonedDateTime.of(2023, 4, 16, 2, 0, 0, 0, ZoneId.of("Asia/Manila")));
+
+        transactionRollupService.applyCreated(transaction);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).upsert(query.capture(), update.capture());
+        verify(bulkOperations).execute();
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("creatorId", creator.getId())
+                .append("type", TransactionType.CC2GOLD)
+                .append("day", DAY));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(inc.get("transactionCount")).isEqualTo(1L);
+        assertThat(inc.get("itemCount")).isEqualTo(1L);
+        assertThat(inc.get("goldPaid")).isEqualTo(800.0);
+        assertThat(inc.get("ccAmount")).isEqualTo(new Decimal128(BigDecimal.valueOf(1000)));
+        assertThat(inc.get("goldPerCCSum")).isEqualTo(0.8);
+        assertThat(inc.get("goldPerCCCount")).isEqualTo(1L);
+    }
+
+    @Test
+    void transactionMovedToAnotherDayLeavesTheOldRollupAndJoinsTheNewOne() {
+        Transaction previous = TestFixtures.transaction("tx-1", creator);
+        Transaction updated = TestFixtures.transaction("tx-1", creator);
+        updated.setDateFinished(previous.getDateFinished().plusDays(1));
+
+        transactionRollupService.applyUpdated(previous, updated);
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).upsert(queries.capture(), updates.capture());
+        assertThat(queries.getAllValues()).extracting(query -> query.getQueryObject().get("day")).containsExactly(DAY, DAY.plusDays(1));
+        assertThat(updates.getAllValues()).extracting(update -> update.getUpdateObject().get("$inc", Document.class).get("transactionCount"))
+                .containsExactly(-1L, 1L);
+    }
+
+    @Test
+    void updateThatKeepsTheTotalsWritesNothing() {
+        Transaction previous = TestFixtures.transaction("tx-1", creator);
+        Transaction updated = TestFixtures.transaction("tx-1", creator);
+        updated.setUsername("Maria Santos");
+
+        transactionRollupService.applyUpdated(previous, updated);
+
+        verifyNoInteractions(mongoTemplate, bulkOperations);
+    }
+
+    @Test
+    void reversedTransactionsNeverCount() {
+        Transaction reversed = TestFixtures.transaction("tx-1", creator);
+        reversed.setReversed(true);
+        transactionRollupService.applyCreated(reversed);
+        transactionRollupService.applyDeleted(reversed);
+        verifyNoInteractions(mongoTemplate, bulkOperations);
+
+        // reversing a transaction takes it out of its rollup
+        transactionRollupService.applyUpdated(TestFixtures.transaction("tx-1", creator), reversed);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).upsert(any(Query.class), update.capture());
+        assertThat(update.getValue().getUpdateObject().get("$inc", Document.class).get("transactionCount")).isEqualTo(-1L);
+    }
+
+    @Test
+    void failedRollupUpdateDoesNotFailTheWrite() {
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("Connection reset"));
+
+        transactionRollupService.applyCreated(TestFixtures.transaction("tx-1", creator));
+
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void rebuildWaitsForTheWritesInFlight() throws Exception {
+        when(mongoTemplate.getCollectionName(TransactionDailyRollup.class)).thenReturn("transaction_daily_rollups");
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        when(mongoTemplate.count(any(Query.class), eq(TransactionDailyRollup.class))).thenReturn(3L);
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch finishWrite = new CountDownLatch(1);
+
+        CompletableFuture<String> write = CompletableFuture.supplyAsync(() -> transactionRollupService.fenced(() -> {
+            writeStarted.countDown();
+            await(finishWrite);
+            return "written";
+        }));
+        assertThat(writeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Long> rebuild = CompletableFuture.supplyAsync(transactionRollupService::rebuild);
+
+        Thread.sleep(200);
+        assertThat(rebuild).isNotDone();
+        verify(mongoTemplate, never()).aggregate(any(TypedAggregation.class), eq(Document.class));
+
+        finishWrite.countDown();
+        assertThat(write.get(5, TimeUnit.SECONDS)).isEqualTo("written");
+        assertThat(rebuild.get(5, TimeUnit.SECONDS)).isEqualTo(3L);
+        ArgumentCaptor<TransactionRollupState> state = ArgumentCaptor.forClass(TransactionRollupState.class);
+        verify(mongoTemplate).save(state.capture());
+        assertThat(state.getValue().getId()).isEqualTo(TransactionRollupState.DAILY_ROLLUPS);
+        assertThat(transactionRollupService.isBuilt()).isTrue();
+        verify(mongoTemplate, never()).exists(any(Query.class), eq(TransactionRollupState.class));
+    }
+
+    @Test
+    void builtStateIsOnlyCachedOnceItExists() {
+        when(mongoTemplate.exists(any(Query.class), eq(TransactionRollupState.class))).thenReturn(false, true);
+
+        assertThat(transactionRollupService.isBuilt()).isFalse();
+        assertThat(transactionRollupService.isBuilt()).isTrue();
+        assertThat(transactionRollupService.isBuilt()).isTrue();
+
+        verify(mongoTemplate, times(2)).exists(any(Query.class), eq(TransactionRollupState.class));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
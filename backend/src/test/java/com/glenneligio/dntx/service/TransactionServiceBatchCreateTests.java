@@ -0,0 +1,161 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.TestFixtures;
+import com.glenneligio.dntx.dtos.BatchCreateResultDto;
+import com.glenneligio.dntx.dtos.BatchItemResultDto;
+import com.glenneligio.dntx.dtos.CreateUpdateTransactionDto;
+import com.glenneligio.dntx.dtos.TransactionItemDto;
+import com.glenneligio.dntx.exception.ApiException;
+import com.glenneligio.dntx.model.Account;
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.model.TransactionCreator;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceBatchCreateTests {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private AccountService accountService;
+    @Mock
+    private TransactionRollupService transactionRollupService;
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private TransactionService transactionService;
+    private Account creator;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = TestFixtures.transactionService(mongoTemplate, accountService, transactionRollupService);
+        creator = TestFixtures.account("trader");
+        lenient().when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Transaction.class))).thenReturn(bulkOperations);
+        lenient().when(transactionRollupService.fenced(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+    }
+
+    @Test
+    void everyItemGetsItsOwnResult() {
+        CreateUpdateTransactionDto blankUsername = dto("trader");
+        blankUsername.setUsername(" ");
+        List<CreateUpdateTransactionDto> dtos = Arrays.asList(dto("trader"), null, blankUsername, dto("nobody"), dto("trader"));
+        when(accountService.getAccountsByUsernames(Set.of("trader", "nobody"))).thenReturn(Map.of("trader", creator));
+        // the second queued transaction, index 4 of the batch, is rejected by Mongo
+        BulkWriteError error = new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1);
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("Bulk write failed",
+                new MongoBulkWriteException(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()), List.of(error), null, new ServerAddress())));
+
+        BatchCreateResultDto result = transactionService.createTransactions(dtos, null);
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(4);
+        List<BatchItemResultDto> results = result.getResults();
+        assertThat(results).extracting(BatchItemResultDto::getIndex).containsExactly(0, 1, 2, 3, 4);
+        assertThat(results).extracting(BatchItemResultDto::getStatus).containsExactly(201, 400, 400, 404, 409);
+        assertThat(results.get(0).getId()).isNotNull();
+        assertThat(results.get(0).getErrors()).isEmpty();
+        assertThat(results.get(1).getErrors()).containsExactly("Transaction must not be null");
+        assertThat(results.get(2).getErrors()).containsExactly("username: Username can't be blank");
+        assertThat(results.get(3).getErrors()).containsExactly("No account with specified username was found");
+        assertThat(results.get(4).getErrors()).containsExactly("E11000 duplicate key error");
+        assertThat(results.get(4).getId()).isNull();
+
+        ArgumentCaptor<List<Transaction>> inserted = listCaptor();
+        verify(bulkOperations).insert(inserted.capture());
+        assertThat(inserted.getValue()).hasSize(2);
+        // only the transaction that was written counts towards the rollups
+        verify(transactionRollupService).apply(List.of(), List.of(inserted.getValue().get(0)));
+        assertThat(inserted.getValue().get(0).getId()).isEqualTo(results.get(0).getId());
+        assertThat(inserted.getValue().get(0).getVersion()).isZero();
+        assertThat(inserted.getValue().get(0).getCreator()).isEqualTo(new TransactionCreator(creator));
+    }
+
+    @Test
+    void givenCreatorIsForcedOnEveryItem() {
+        when(accountService.getAccountsByUsernames(Set.of("trader"))).thenReturn(Map.of("trader", creator));
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(2, 0, 0, 0, List.of(), List.of()));
+
+        BatchCreateResultDto result = transactionService.createTransactions(List.of(dto("other"), dto("trader")), "trader");
+
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getFailed()).isZero();
+        ArgumentCaptor<List<Transaction>> inserted = listCaptor();
+        verify(bulkOperations).insert(inserted.capture());
+        assertThat(inserted.getValue()).extracting(Transaction::getCreator)
+                .containsOnly(new TransactionCreator(creator));
+    }
+
+    @Test
+    void batchWithoutValidItemsWritesNothing() {
+        when(accountService.getAccountsByUsernames(Set.of("nobody"))).thenReturn(Map.of());
+
+        BatchCreateResultDto result = transactionService.createTransactions(List.of(dto("nobody")), null);
+
+        assertThat(result.getCreated()).isZero();
+        assertThat(result.getFailed()).isEqualTo(1);
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Transaction.class));
+        verify(transactionRollupService, never()).apply(anyList(), anyList());
+    }
+
+    @Test
+    void emptyAndOversizedBatchesAreBadRequests() {
+        transactionService = TestFixtures.transactionService(null, mongoTemplate, accountService, transactionRollupService, 500, 2);
+
+        assertThatThrownBy(() -> transactionService.createTransactions(Collections.emptyList(), null))
+                .isInstanceOf(ApiException.class)
+                .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> transactionService.createTransactions(List.of(dto("trader"), dto("trader"), dto("trader")), null))
+                .isInstanceOf(ApiException.class)
+                .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+        verifyNoInteractions(accountService, mongoTemplate);
+    }
+
+    private CreateUpdateTransactionDto dto(String creatorUsername) {
+        CreateUpdateTransactionDto dto = new CreateUpdateTransactionDto();
+        dto.setUsername("Juan Dela Cruz");
+        dto.setCreator(new TransactionCreator(null, creatorUsername));
+        dto.setType("CC2GOLD");
+        dto.setReversed(false);
+        TransactionItemDto item = new TransactionItemDto();
+        item.setCcAmount(BigDecimal.valueOf(1000));
+        item.setGoldPerCC(0.8);
+        item.setGoldPaid(800.0);
+        dto.setTransactionItems(new ArrayList<>(List.of(item)));
+        return dto;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<Transaction>> listCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+}
@@ -0,0 +1,163 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.TestFixtures;
+import com.glenneligio.dntx.dtos.TransactionCursorPageDto;
+import com.glenneligio.dntx.exception.ApiException;
+import com.glenneligio.dntx.model.Account;
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.repository.TransactionQueryBuilder;
+import com.glenneligio.dntx.util.Utils;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceCursorTests {
+
+    private static final ZonedDateTime FINISHED = ZonedDateTime.of(2023, 4, 15, 10, 30, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private AccountService accountService;
+    @Mock
+    private TransactionRollupService transactionRollupService;
+
+    private TransactionService transactionService;
+    private Account creator;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = TestFixtures.transactionService(mongoTemplate, accountService, transactionRollupService);
+        creator = TestFixtures.account("trader");
+        lenient().when(accountService.getAccountByUsername("trader")).thenReturn(creator);
+    }
+
+    @Test
+    void firstPageFetchesOneExtraTransactionAndPointsTheCursorAtTheLastOneReturned() {
+        List<Transaction> newestFirst = transactions(FINISHED, FINISHED, FINISHED.minusHours(1));
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(newestFirst);
+
+        TransactionCursorPageDto page = transactionService.getTransactionCursorPageByCreatorUsernameTypeAndDateFinished("trader", List.of(), null, null, null, 2, false);
+
+        Query query = capturedFind();
+        assertThat(query.getLimit()).isEqualTo(3);
+        assertThat(query.getSortObject()).isEqualTo(new Document("dateFinished", -1).append("id", -1));
+        assertThat(query.getQueryObject()).doesNotContainKey("$or");
+        assertThat(page.getTransactions()).containsExactlyElementsOf(newestFirst.subList(0, 2));
+        assertThat(Utils.decodeCursor(page.getNextCursor()))
+                .containsExactly(String.valueOf(FINISHED.toInstant().toEpochMilli()), newestFirst.get(1).getId());
+        assertThat(page.getTotalTransactions()).isNull();
+    }
+
+    @Test
+    void nextPageSeeksPastTheCursorWithTheIdAsTieBreaker() {
+        String lastId = new ObjectId().toHexString();
+        String cursor = Utils.encodeCursor(String.valueOf(FINISHED.toInstant().toEpochMilli()), lastId);
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(new ArrayList<>());
+
+        transactionService.getTransactionCursorPageByCreatorUsernameTypeAndDateFinished("trader", List.of(), null, null, cursor, 2, false);
+
+        Document queryObject = capturedFind().getQueryObject();
+        assertThat(queryObject.get("creator.id")).isEqualTo(creator.getId());
+        List<Document> seek = queryObject.getList("$or", Document.class);
+        assertThat(seek).containsExactly(
+                new Document("dateFinished", new Document("$lt", FINISHED)),
+                new Document("dateFinished", FINISHED).append("id", new Document("$lt", lastId)));
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(transactions(FINISHED, FINISHED.minusHours(1)));
+
+        TransactionCursorPageDto page = transactionService.getTransactionCursorPageByCreatorUsernameTypeAndDateFinished("trader", List.of(), null, null, null, 2, false);
+
+        assertThat(page.getTransactions()).hasSize(2);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void totalIsCountedWithoutTheCursorWhenRequested() {
+        String cursor = Utils.encodeCursor(String.valueOf(FINISHED.toInstant().toEpochMilli()), new ObjectId().toHexString());
+        ZonedDateTime afterDate = FINISHED.minusDays(7);
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(new ArrayList<>());
+        when(mongoTemplate.count(any(Query.class), eq(Transaction.class))).thenReturn(42L);
+
+        TransactionCursorPageDto page = transactionService.getTransactionCursorPageByCreatorUsernameTypeAndDateFinished("trader", List.of(), afterDate, null, cursor, 2, true);
+
+        assertThat(page.getTotalTransactions()).isEqualTo(42L);
+        ArgumentCaptor<Query> countQuery = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).count(countQuery.capture(), eq(Transaction.class));
+        assertThat(countQuery.getValue().getQueryObject())
+                .isEqualTo(TransactionQueryBuilder.ownedBy(creator.getId()).finishedAfter(afterDate).toQuery().getQueryObject());
+    }
+
+    @Test
+    void malformedCursorsAreBadRequests() {
+        for (String cursor : List.of("not base64!", Utils.encodeCursor("only-one-value"), Utils.encodeCursor("yesterday", new ObjectId().toHexString()))) {
+            assertThatThrownBy(() -> transactionService.getTransactionCursorPageByCreatorUsernameTypeAndDateFinished("trader", List.of(), null, null, cursor, 2, false))
+                    .isInstanceOf(ApiException.class)
+                    .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Transaction.class));
+    }
+
+    @Test
+    void wholeCollectionPagesSeekPastTheLastId() {
+        List<Transaction> firstPage = transactions(FINISHED, FINISHED, FINISHED);
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(firstPage, new ArrayList<>());
+
+        TransactionCursorPageDto page = transactionService.getTransactionCursorPage(null, 2);
+        transactionService.getTransactionCursorPage(page.getNextCursor(), 2);
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(Transaction.class));
+        assertThat(page.getNextCursor()).isEqualTo(Utils.encodeCursor(firstPage.get(1).getId()));
+        assertThat(queries.getAllValues().get(0).getQueryObject()).isEmpty();
+        assertThat(queries.getAllValues().get(1).getQueryObject())
+                .isEqualTo(new Document("id", new Document("$gt", firstPage.get(1).getId())));
+        assertThat(queries.getAllValues().get(1).getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    void wholeCollectionCursorMustHoldAnObjectId() {
+        assertThatThrownBy(() -> transactionService.getTransactionCursorPage(Utils.encodeCursor("not-an-object-id"), 2))
+                .isInstanceOf(ApiException.class)
+                .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    private Query capturedFind() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Transaction.class));
+        return query.getValue();
+    }
+
+    private List<Transaction> transactions(ZonedDateTime... datesFinished) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (ZonedDateTime dateFinished : datesFinished) {
+            Transaction transaction = TestFixtures.transaction(new ObjectId().toHexString(), creator);
+            transaction.setDateFinished(dateFinished);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+}
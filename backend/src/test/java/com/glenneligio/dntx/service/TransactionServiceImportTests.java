@@ -0,0 +1,233 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.TestFixtures;
+import com.glenneligio.dntx.dtos.BulkImportResultDto;
+import com.glenneligio.dntx.exception.ApiException;
+import com.glenneligio.dntx.model.Account;
+import com.glenneligio.dntx.model.Transaction;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceImportTests {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private AccountService accountService;
+    @Mock
+    private TransactionRollupService transactionRollupService;
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private TransactionService transactionService;
+    private Account creator;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = TestFixtures.transactionService(mongoTemplate, accountService, transactionRollupService);
+        creator = TestFixtures.account("trader");
+        lenient().when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Transaction.class))).thenReturn(bulkOperations);
+        lenient().when(transactionRollupService.fenced(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+    }
+
+    @Test
+    void everyInvalidRowIsReportedAndTheOthersAreWritten() {
+        Transaction valid = TestFixtures.transaction("tx-valid", creator);
+        Transaction withoutItems = TestFixtures.transaction("tx-empty", creator);
+        withoutItems.setTransactionItems(new ArrayList<>());
+        Transaction withoutIdOrUsername = TestFixtures.transaction(null, creator);
+        withoutIdOrUsername.setUsername(" ");
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of());
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()));
+
+        BulkImportResultDto result = transactionService.addOrUpdate(new ArrayList<>(List.of(valid, withoutItems, withoutIdOrUsername)), creator, false);
+
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getFailures()).hasSize(2);
+        assertThat(result.getFailures().get(0)).startsWith("tx-empty: ");
+        // a row without an id is still reported, by its customer and date
+        assertThat(result.getFailures().get(1)).startsWith("Transaction of   finished 2023-04-15T10:30Z: ");
+        verify(bulkOperations).insert(valid);
+        verify(bulkOperations, never()).insert(withoutItems);
+        verify(bulkOperations, never()).insert(withoutIdOrUsername);
+    }
+
+    @Test
+    void rowsRejectedByMongoAreReportedAndLeftOutOfTheRollups() {
+        Transaction first = TestFixtures.transaction("tx-1", creator);
+        Transaction duplicate = TestFixtures.transaction("tx-2", creator);
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of());
+        BulkWriteError error = new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1);
+        MongoBulkWriteException bulkWriteException = new MongoBulkWriteException(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()),
+                List.of(error), null, new ServerAddress());
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("Bulk write failed", bulkWriteException));
+
+        BulkImportResultDto result = transactionService.addOrUpdate(new ArrayList<>(List.of(first, duplicate)), creator, false);
+
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getFailures()).containsExactly("tx-2: E11000 duplicate key error");
+        verify(transactionRollupService).apply(List.of(), List.of(first));
+    }
+
+    @Test
+    void existingTransactionsAreSkippedWithoutOverwrite() {
+        Transaction existing = TestFixtures.transaction("tx-existing", creator);
+        Transaction added = TestFixtures.transaction("tx-new", creator);
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of(TestFixtures.transaction("tx-existing", creator)));
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()));
+
+        BulkImportResultDto result = transactionService.addOrUpdate(new ArrayList<>(List.of(existing, added)), creator, false);
+
+        assertThat(result.getSkipped()).isEqualTo(1);
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getUpdated()).isZero();
+        verify(bulkOperations).insert(added);
+        verify(bulkOperations, never()).replaceOne(any(Query.class), any());
+    }
+
+    @Test
+    void existingTransactionsOfTheCreatorAreReplacedWithOverwrite() {
+        Transaction stored = TestFixtures.transaction("tx-existing", creator);
+        stored.setVersion(3L);
+        Transaction replacement = TestFixtures.transaction("tx-existing", creator);
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of(stored));
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        BulkImportResultDto result = transactionService.addOrUpdate(new ArrayList<>(List.of(replacement)), creator, true);
+
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getSkipped()).isZero();
+        assertThat(result.getFailures()).isEmpty();
+        assertThat(replacement.getVersion()).isEqualTo(4L);
+        ArgumentCaptor<Query> replaceQuery = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations).replaceOne(replaceQuery.capture(), eq(replacement));
+        // only a transaction owned by the creator can be replaced
+        assertThat(replaceQuery.getValue().getQueryObject().get("creator.id")).isEqualTo(creator.getId());
+        verify(transactionRollupService).apply(List.of(stored), List.of(replacement));
+    }
+
+    @Test
+    void replacementsOfOtherCreatorsTransactionsAreReported() {
+        Account otherCreator = TestFixtures.account("other");
+        Transaction storedByOther = TestFixtures.transaction("tx-other", otherCreator);
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of(storedByOther));
+        // the replace query also filters on the creator, so it does not match
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()));
+
+        BulkImportResultDto result = transactionService.addOrUpdate(new ArrayList<>(List.of(TestFixtures.transaction("tx-other", creator))), creator, true);
+
+        assertThat(result.getUpdated()).isZero();
+        assertThat(result.getFailures()).containsExactly("1 transactions were not updated since they belong to other users");
+        verify(transactionRollupService).apply(List.of(), List.of());
+    }
+
+    @Test
+    void importOfAnotherCreatorsRowInALaterChunkWritesNothing() {
+        transactionService = TestFixtures.transactionService(null, mongoTemplate, accountService, transactionRollupService, 1, 500);
+        when(accountService.getAccountByUsername("trader")).thenReturn(creator);
+        Account otherCreator = TestFixtures.account("other");
+        MockMultipartFile file = excelFile(List.of(
+                TestFixtures.transaction("tx-1", creator),
+                TestFixtures.transaction("tx-2", creator),
+                TestFixtures.transaction("tx-3", otherCreator)));
+
+        assertThatThrownBy(() -> transactionService.importExcel(file, "trader", false))
+                .isInstanceOf(ApiException.class)
+                .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.FORBIDDEN));
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Transaction.class));
+        verify(transactionRollupService, never()).apply(anyList(), anyList());
+    }
+
+    @Test
+    void importOfOwnRowsWritesEveryChunk() {
+        transactionService = TestFixtures.transactionService(null, mongoTemplate, accountService, transactionRollupService, 1, 500);
+        when(accountService.getAccountByUsername("trader")).thenReturn(creator);
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of());
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()));
+        MockMultipartFile file = excelFile(List.of(
+                TestFixtures.transaction("tx-1", creator),
+                TestFixtures.transaction("tx-2", creator),
+                TestFixtures.transaction("tx-3", creator)));
+
+        BulkImportResultDto result = transactionService.importExcel(file, "trader", false);
+
+        assertThat(result.getBatches()).isEqualTo(3);
+        assertThat(result.getInserted()).isEqualTo(3);
+        assertThat(result.getFailures()).isEmpty();
+    }
+
+    @Test
+    void transactionWhoseRowsAreNotNextToEachOtherIsReportedAndLeftOut() {
+        when(accountService.getAccountByUsername("trader")).thenReturn(creator);
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of());
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()));
+        // a sorted sheet, the rows of tx-1 are split by the row of tx-2
+        MockMultipartFile file = excelFile(List.of(
+                TestFixtures.transaction("tx-1", creator),
+                TestFixtures.transaction("tx-2", creator),
+                TestFixtures.transaction("tx-1", creator)));
+
+        BulkImportResultDto result = transactionService.importExcel(file, "trader", true);
+
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getFailures()).containsExactly("tx-1: The rows of the transaction are not next to each other, none of them were imported");
+        ArgumentCaptor<Transaction> inserted = ArgumentCaptor.forClass(Transaction.class);
+        verify(bulkOperations).insert(inserted.capture());
+        assertThat(inserted.getValue().getId()).isEqualTo("tx-2");
+        verify(bulkOperations, never()).replaceOne(any(Query.class), any());
+    }
+
+    @Test
+    void rowWithoutIdIsReportedAndTheOthersAreImported() {
+        when(accountService.getAccountByUsername("trader")).thenReturn(creator);
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of());
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(2, 0, 0, 0, List.of(), List.of()));
+        MockMultipartFile file = excelFile(List.of(
+                TestFixtures.transaction("tx-1", creator),
+                TestFixtures.transaction(null, creator),
+                TestFixtures.transaction("tx-2", creator)));
+
+        BulkImportResultDto result = transactionService.importExcel(file, "trader", false);
+
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getFailures()).containsExactly("Row 3 of sheet CC2GOLD: Transaction id must not be blank");
+        ArgumentCaptor<Transaction> inserted = ArgumentCaptor.forClass(Transaction.class);
+        verify(bulkOperations, times(2)).insert(inserted.capture());
+        assertThat(inserted.getAllValues()).extracting(Transaction::getId).containsExactly("tx-1", "tx-2");
+    }
+
+    private MockMultipartFile excelFile(List<Transaction> transactions) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        transactionService.listToExcel(transactions, outputStream);
+        return new MockMultipartFile("file", "transactions.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", outputStream.toByteArray());
+    }
+}
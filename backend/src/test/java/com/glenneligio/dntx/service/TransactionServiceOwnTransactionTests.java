@@ -0,0 +1,168 @@
+package com.glenneligio.dntx.service;
+
+import com.glenneligio.dntx.TestFixtures;
+import com.glenneligio.dntx.enums.TransactionType;
+import com.glenneligio.dntx.exception.ApiException;
+import com.glenneligio.dntx.model.Account;
+import com.glenneligio.dntx.model.Transaction;
+import com.glenneligio.dntx.repository.TransactionRepository;
+import jakarta.validation.ConstraintViolationException;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceOwnTransactionTests {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private AccountService accountService;
+    @Mock
+    private TransactionRollupService transactionRollupService;
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionService transactionService;
+    private Account creator;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = TestFixtures.transactionService(transactionRepository, mongoTemplate, accountService, transactionRollupService, 500, 500);
+        creator = TestFixtures.account("trader");
+        lenient().when(transactionRollupService.fenced(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+    }
+
+    @Test
+    void updateIsASingleFindAndModifyScopedToTheOwnerTypeAndVersion() {
+        Transaction stored = TestFixtures.transaction("tx-1", creator);
+        stored.setVersion(2L);
+        Transaction updatedTx = TestFixtures.transaction(null, creator);
+        updatedTx.setUsername("Maria Santos");
+        updatedTx.setVersion(2L);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Transaction.class))).thenReturn(stored);
+
+        Transaction saved = transactionService.updateOwnTransaction("tx-1", "trader", updatedTx);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Transaction.class));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("id", "tx-1")
+                .append("creator.username", "trader")
+                .append("version", 2L)
+                .append("type", TransactionType.CC2GOLD));
+        assertThat(update.getValue().getUpdateObject().get("$inc", Document.class)).isEqualTo(new Document("version", 1));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class).get("username")).isEqualTo("Maria Santos");
+        // the previous document is returned, the rollups need it to take the old totals out
+        assertThat(options.getValue().isReturnNew()).isFalse();
+
+        assertThat(saved.getId()).isEqualTo("tx-1");
+        assertThat(saved.getUsername()).isEqualTo("Maria Santos");
+        assertThat(saved.getVersion()).isEqualTo(3L);
+        assertThat(saved.getCreator()).isEqualTo(stored.getCreator());
+        verify(transactionRollupService).applyUpdated(stored, saved);
+        verify(transactionRepository, never()).findById(any());
+    }
+
+    @Test
+    void updateWithoutVersionIsNotConditionalOnIt() {
+        Transaction updatedTx = TestFixtures.transaction(null, creator);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Transaction.class)))
+                .thenReturn(TestFixtures.transaction("tx-1", creator));
+
+        transactionService.updateOwnTransaction("tx-1", "trader", updatedTx);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(Transaction.class));
+        assertThat(query.getValue().getQueryObject()).doesNotContainKey("version");
+    }
+
+    @Test
+    void invalidUpdateIsRejectedBeforeWriting() {
+        Transaction updatedTx = TestFixtures.transaction(null, creator);
+        updatedTx.setTransactionItems(new ArrayList<>());
+
+        assertThatThrownBy(() -> transactionService.updateOwnTransaction("tx-1", "trader", updatedTx))
+                .isInstanceOf(ConstraintViolationException.class);
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void updateMissTellsWhichConditionFailed() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Transaction.class))).thenReturn(null);
+        Transaction ownedByOther = TestFixtures.transaction("tx-other", TestFixtures.account("other"));
+        Transaction otherType = TestFixtures.transaction("tx-type", creator);
+        otherType.setType(TransactionType.ITEM2GOLD);
+        Transaction newerVersion = TestFixtures.transaction("tx-version", creator);
+        newerVersion.setVersion(5L);
+        when(transactionRepository.findById("tx-missing")).thenReturn(Optional.empty());
+        when(transactionRepository.findById("tx-other")).thenReturn(Optional.of(ownedByOther));
+        when(transactionRepository.findById("tx-type")).thenReturn(Optional.of(otherType));
+        when(transactionRepository.findById("tx-version")).thenReturn(Optional.of(newerVersion));
+
+        assertUpdateFails("tx-missing", HttpStatus.NOT_FOUND);
+        assertUpdateFails("tx-other", HttpStatus.UNAUTHORIZED);
+        assertUpdateFails("tx-type", HttpStatus.BAD_REQUEST);
+        assertUpdateFails("tx-version", HttpStatus.CONFLICT);
+        verify(transactionRollupService, never()).applyUpdated(any(), any());
+    }
+
+    @Test
+    void deleteIsASingleFindAndRemoveScopedToTheOwnerAndVersion() {
+        Transaction stored = TestFixtures.transaction("tx-1", creator);
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Transaction.class))).thenReturn(stored);
+
+        Transaction deleted = transactionService.deleteOwnTransaction("tx-1", "trader", 4L);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndRemove(query.capture(), eq(Transaction.class));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("id", "tx-1")
+                .append("creator.username", "trader")
+                .append("version", 4L));
+        assertThat(deleted).isSameAs(stored);
+        verify(transactionRollupService).applyDeleted(stored);
+    }
+
+    @Test
+    void deleteMissTellsWhichConditionFailed() {
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Transaction.class))).thenReturn(null);
+        when(transactionRepository.findById("tx-other")).thenReturn(Optional.of(TestFixtures.transaction("tx-other", TestFixtures.account("other"))));
+        when(transactionRepository.findById("tx-version")).thenReturn(Optional.of(TestFixtures.transaction("tx-version", creator)));
+
+        assertThatThrownBy(() -> transactionService.deleteOwnTransaction("tx-other", "trader", null))
+                .isInstanceOf(ApiException.class)
+                .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED));
+        assertThatThrownBy(() -> transactionService.deleteOwnTransaction("tx-version", "trader", 1L))
+                .isInstanceOf(ApiException.class)
+                .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.CONFLICT));
+        verify(transactionRollupService, never()).applyDeleted(any());
+    }
+
+    private void assertUpdateFails(String id, HttpStatus status) {
+        Transaction updatedTx = TestFixtures.transaction(null, creator);
+        updatedTx.setVersion(1L);
+        assertThatThrownBy(() -> transactionService.updateOwnTransaction(id, "trader", updatedTx))
+                .isInstanceOf(ApiException.class)
+                .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(status));
+    }
+}